@@ -0,0 +1,88 @@
+package com.exo1.exo1.benchmark;
+
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.entity.User;
+import com.exo1.exo1.repository.ProjetRepository;
+import com.exo1.exo1.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Graphes d'entités des benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Utilisateur rattaché à {@code projets} projets de {@code tasksPerProjet} tâches chacun.
+     * Les identifiants sont renseignés comme après un chargement depuis la base.
+     */
+    static User user(int projets, int tasksPerProjet) {
+        User user = new User();
+        user.setId(1L);
+        user.setName("Utilisateur");
+        user.setEmail("utilisateur@exo1.fr");
+        long taskId = 1;
+        for (int p = 0; p < projets; p++) {
+            Projet projet = projet("Projet " + p, tasksPerProjet);
+            projet.setId((long) p + 1);
+            for (Task task : projet.getTasks()) {
+                task.setId(taskId++);
+            }
+            projet.getUsers().add(user);
+            user.getProjets().add(projet);
+        }
+        return user;
+    }
+
+    /**
+     * Projet sans identifiant et ses {@code tasks} tâches.
+     */
+    static Projet projet(String name, int tasks) {
+        Projet projet = new Projet();
+        projet.setName(name);
+        projet.setDescription("Description de " + name);
+        for (int t = 0; t < tasks; t++) {
+            Task task = new Task();
+            task.setTitle(name + " - tâche " + t);
+            task.setStatus(t % 3 == 0 ? "DONE" : "TODO");
+            task.setProjet(projet);
+            projet.getTasks().add(task);
+        }
+        return projet;
+    }
+
+    /**
+     * Alimente la base de l'application : {@code projets} projets de {@code tasksPerProjet} tâches,
+     * puis {@code users} utilisateurs rattachés chacun à {@code projetsPerUser} projets.
+     */
+    static void seed(ApplicationContext context, int projets, int tasksPerProjet, int users, int projetsPerUser) {
+        ProjetRepository projetRepository = context.getBean(ProjetRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            List<Projet> saved = new ArrayList<>();
+            for (int p = 0; p < projets; p++) {
+                saved.add(projet("Projet " + p, tasksPerProjet));
+            }
+            saved = projetRepository.saveAll(saved);
+            List<User> created = new ArrayList<>();
+            for (int u = 0; u < users; u++) {
+                User user = new User();
+                user.setName("Utilisateur " + u);
+                user.setEmail("u" + u + "@exo1.fr");
+                for (int p = 0; p < projetsPerUser; p++) {
+                    user.getProjets().add(saved.get((u * projetsPerUser + p) % projets));
+                }
+                created.add(user);
+            }
+            userRepository.saveAll(created);
+        });
+    }
+}
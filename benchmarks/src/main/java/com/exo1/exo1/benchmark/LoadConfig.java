@@ -0,0 +1,100 @@
+package com.exo1.exo1.benchmark;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Paramètres d'un tir de charge, lus depuis les arguments {@code --clé=valeur}.
+ *
+ * @param target l'URL de l'application ; ignorée avec {@code boot}.
+ * @param boot vrai pour démarrer l'application dans le processus, sur une base H2 en mémoire alimentée au démarrage.
+ * @param arrival le modèle d'arrivée des requêtes.
+ * @param clients le nombre de clients simultanés (boucle fermée).
+ * @param rate le débit visé en requêtes par seconde (boucle ouverte).
+ * @param warmup la durée de chauffe, non mesurée.
+ * @param duration la durée mesurée.
+ * @param mix le poids de chaque opération.
+ * @param pages le nombre de pages parmi lesquelles les lectures sont tirées.
+ * @param timeout le délai maximal d'une réponse.
+ * @param output le répertoire des résultats.
+ * @param baseline le résumé d'un tir précédent auquel se comparer, ou null.
+ * @param tolerance la dégradation tolérée par rapport à la référence (0.10 = 10 %).
+ */
+record LoadConfig(URI target, boolean boot, Arrival arrival, int clients, double rate, Duration warmup,
+                  Duration duration, Map<Operation, Integer> mix, int pages, Duration timeout, Path output,
+                  Path baseline, double tolerance) {
+
+    /**
+     * Boucle fermée : chaque client attend la réponse avant d'envoyer sa requête suivante.
+     * Boucle ouverte : les requêtes partent à débit fixe quel que soit le temps de réponse ; la latence
+     * est mesurée depuis l'heure d'envoi prévue, ce qui compte l'attente due à un serveur saturé.
+     */
+    enum Arrival {
+        CLOSED, OPEN
+    }
+
+    private static final String DEFAULT_MIX = "tasks:40,projets:20,users:20,count:10,add-task:6,add-projet:2,add-user:2";
+    private static final Set<String> KEYS = Set.of("target", "boot", "arrival", "clients", "rate", "warmup",
+            "duration", "mix", "pages", "timeout", "output", "baseline", "tolerance");
+
+    /**
+     * Lit la configuration.
+     *
+     * @param args les arguments {@code --clé=valeur}.
+     * @throws IllegalArgumentException si un argument est inconnu ou invalide.
+     */
+    static LoadConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0 || !KEYS.contains(arg.substring(2, eq))) {
+                throw new IllegalArgumentException("argument inconnu : " + arg + " (attendu --clé=valeur parmi " + KEYS + ")");
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String baseline = values.get("baseline");
+        return new LoadConfig(
+                URI.create(values.getOrDefault("target", "http://localhost:8081")),
+                Boolean.parseBoolean(values.getOrDefault("boot", "false")),
+                Arrival.valueOf(values.getOrDefault("arrival", "closed").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(values.getOrDefault("clients", "100")),
+                Double.parseDouble(values.getOrDefault("rate", "500")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT30S")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(values.getOrDefault("pages", "20")),
+                Duration.parse(values.getOrDefault("timeout", "PT10S")),
+                Path.of(values.getOrDefault("output", "target/load")),
+                baseline == null ? null : Path.of(baseline),
+                Double.parseDouble(values.getOrDefault("tolerance", "0.10")));
+    }
+
+    /**
+     * Lit un mélange {@code opération:poids,...}, par exemple {@code tasks:90,add-task:10}.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.of(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mélange vide : " + mix);
+        }
+        return weights;
+    }
+
+    LoadConfig withTarget(URI target) {
+        return new LoadConfig(target, boot, arrival, clients, rate, warmup, duration, mix, pages, timeout, output,
+                baseline, tolerance);
+    }
+}
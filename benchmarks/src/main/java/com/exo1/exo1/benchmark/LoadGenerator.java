@@ -0,0 +1,185 @@
+package com.exo1.exo1.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge HTTP asynchrone : aucun thread n'est bloqué par client, ce qui permet
+ * plusieurs milliers de clients simultanés. Les latences (en microsecondes) sont enregistrées
+ * par opération dans des histogrammes HdrHistogram, hors période de chauffe.
+ */
+final class LoadGenerator {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadConfig config;
+    private final HttpClient client;
+    private final ExecutorService callbacks;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong sequence = new AtomicLong();
+    private long measureFrom;
+    private long measureUntil;
+
+    LoadGenerator(LoadConfig config) {
+        this.config = config;
+        // Exécuteur propre aux enchaînements de la boucle fermée : le client HTTP garde le sien,
+        // sans quoi un petit pool partagé suffit à bloquer les échanges en cours
+        this.callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.timeout())
+                .build();
+        this.operations = config.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            histograms.put(operations[i], new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(operations[i], new LongAdder());
+        }
+    }
+
+    /**
+     * Exécute le tir : chauffe puis mesure.
+     *
+     * @return le résumé de la période mesurée.
+     */
+    LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + config.warmup().toNanos();
+        measureUntil = measureFrom + config.duration().toNanos();
+        try {
+            if (config.arrival() == LoadConfig.Arrival.OPEN) {
+                runOpen(start);
+            } else {
+                runClosed();
+            }
+        } finally {
+            callbacks.shutdownNow();
+        }
+        return LoadReport.of(config, histograms, errors);
+    }
+
+    /**
+     * Boucle fermée : chaque client enchaîne ses requêtes jusqu'à la fin du tir.
+     */
+    private void runClosed() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(config.clients());
+        for (int i = 0; i < config.clients(); i++) {
+            sendNext(done);
+        }
+        await(done);
+    }
+
+    private void sendNext(CountDownLatch done) {
+        long now = System.nanoTime();
+        if (now >= measureUntil) {
+            done.countDown();
+            return;
+        }
+        send(now).whenCompleteAsync((ignored, e) -> sendNext(done), callbacks);
+    }
+
+    /**
+     * Boucle ouverte : une requête toutes les {@code 1/rate} secondes, sans attendre les réponses.
+     * Les requêtes en retard sur leur heure prévue partent aussitôt et leur retard compte dans la latence.
+     */
+    private void runOpen(long start) throws InterruptedException {
+        long interval = Math.round(TimeUnit.SECONDS.toNanos(1) / config.rate());
+        long total = (measureUntil - start) / interval;
+        CountDownLatch done = new CountDownLatch((int) total);
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(intended).whenComplete((ignored, e) -> done.countDown());
+        }
+        await(done);
+    }
+
+    /**
+     * Attend les dernières réponses, au plus deux délais de réponse après la fin de la mesure.
+     */
+    private void await(CountDownLatch done) throws InterruptedException {
+        long deadline = measureUntil + 2 * config.timeout().toNanos();
+        if (!done.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            System.err.printf("%d requêtes toujours sans réponse à la fin du tir%n", done.getCount());
+        }
+    }
+
+    /**
+     * Envoie une requête tirée au hasard selon le mélange et enregistre sa latence depuis {@code intended}.
+     */
+    private CompletableFuture<HttpResponse<Void>> send(long intended) {
+        Operation operation = pick();
+        HttpRequest request = operation.request(config.target(),
+                ThreadLocalRandom.current().nextInt(config.pages()), sequence.incrementAndGet(), config.timeout());
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    long end = System.nanoTime();
+                    if (intended < measureFrom || intended >= measureUntil) {
+                        return;
+                    }
+                    if (e != null || response.statusCode() >= 400) {
+                        errors.get(operation).increment();
+                    } else {
+                        histograms.get(operation).recordValue(
+                                Math.min(TimeUnit.NANOSECONDS.toMicros(end - intended), MAX_LATENCY_MICROS));
+                    }
+                });
+    }
+
+    /**
+     * Écrit la distribution des latences (en millisecondes) au format HdrHistogram {@code .hgrm} :
+     * {@code latency.hgrm} pour l'ensemble des opérations et {@code latency-<opération>.hgrm} pour chacune.
+     */
+    void writeHistograms(Path directory) throws IOException {
+        Histogram all = new Histogram(MAX_LATENCY_MICROS, 3);
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            all.add(entry.getValue());
+            write(entry.getValue(), directory.resolve("latency-" + entry.getKey().key() + ".hgrm"));
+        }
+        write(all, directory.resolve("latency.hgrm"));
+    }
+
+    private static void write(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private Operation pick() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (r >= cumulativeWeights[i]) {
+            i++;
+        }
+        return operations[i];
+    }
+}
@@ -0,0 +1,104 @@
+package com.exo1.exo1.benchmark;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Résumé d'un tir de charge, enregistré en JSON ({@code summary.json}) pour servir de référence aux tirs suivants.
+ *
+ * @param arrival le modèle d'arrivée.
+ * @param clients le nombre de clients (boucle fermée).
+ * @param rate le débit visé (boucle ouverte).
+ * @param durationSeconds la durée mesurée.
+ * @param operations les statistiques par opération, et pour l'ensemble sous la clé {@code all}.
+ */
+record LoadReport(String arrival, int clients, double rate, double durationSeconds, Map<String, Stats> operations) {
+
+    static final String ALL = "all";
+
+    /**
+     * Statistiques d'une opération ; latences en millisecondes, débit en réponses réussies par seconde.
+     */
+    record Stats(long count, long errors, double throughput, double p50, double p99, double p999, double max) {
+
+        static Stats of(Histogram histogram, long errors, double seconds) {
+            return new Stats(histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / (double) TimeUnit.MILLISECONDS.toMicros(1);
+        }
+    }
+
+    static LoadReport of(LoadConfig config, Map<Operation, Histogram> histograms, Map<Operation, LongAdder> errors) {
+        double seconds = config.duration().toMillis() / 1000d;
+        Map<String, Stats> operations = new LinkedHashMap<>();
+        Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long allErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            long operationErrors = errors.get(entry.getKey()).sum();
+            operations.put(entry.getKey().key(), Stats.of(entry.getValue(), operationErrors, seconds));
+            all.add(entry.getValue());
+            allErrors += operationErrors;
+        }
+        operations.put(ALL, Stats.of(all, allErrors, seconds));
+        return new LoadReport(config.arrival().name().toLowerCase(Locale.ROOT), config.clients(), config.rate(),
+                seconds, operations);
+    }
+
+    /**
+     * Tableau des statistiques par opération.
+     */
+    String table() {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-12s %9s %7s %10s %9s %9s %9s %9s%n",
+                "opération", "réponses", "erreurs", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        operations.forEach((name, s) -> out.append(String.format(Locale.ROOT,
+                "%-12s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.count(), s.errors(), s.throughput(), s.p50(), s.p99(), s.p999(), s.max())));
+        return out.toString();
+    }
+
+    /**
+     * Compare ce tir à une référence : une latence (p50, p99, p99.9) plus élevée ou un débit plus faible
+     * au-delà de la tolérance est une régression. Les opérations absentes de l'un des deux tirs sont ignorées.
+     *
+     * @param baseline le tir de référence.
+     * @param tolerance la dégradation tolérée (0.10 = 10 %).
+     * @return les régressions constatées, vide si aucune.
+     */
+    List<String> regressionsAgainst(LoadReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        operations.forEach((name, current) -> {
+            Stats reference = baseline.operations().get(name);
+            if (reference == null) {
+                return;
+            }
+            check(regressions, name, "p50", reference.p50(), current.p50(), tolerance, true);
+            check(regressions, name, "p99", reference.p99(), current.p99(), tolerance, true);
+            check(regressions, name, "p99.9", reference.p999(), current.p999(), tolerance, true);
+            check(regressions, name, "req/s", reference.throughput(), current.throughput(), tolerance, false);
+        });
+        return regressions;
+    }
+
+    private static void check(List<String> regressions, String operation, String metric, double reference,
+                              double current, double tolerance, boolean lowerIsBetter) {
+        if (reference <= 0) {
+            return;
+        }
+        double change = (current - reference) / reference;
+        if (lowerIsBetter ? change > tolerance : change < -tolerance) {
+            regressions.add(String.format(Locale.ROOT, "%s %s : %.2f -> %.2f (%+.1f %%)", operation, metric,
+                    reference, current, change * 100));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.exo1.exo1.benchmark;
+
+import com.exo1.exo1.Exo1Application;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Tir de charge HTTP sur {@code /tasks}, {@code /projets}, {@code /users} et {@code /count/all}.
+ * Écrit dans le répertoire de sortie le résumé {@code summary.json} et les distributions de latence
+ * HdrHistogram ({@code *.hgrm}), puis se compare à la référence éventuelle ({@code --baseline}) :
+ * le code de sortie vaut 2 en cas de régression.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:exec@load -Dload.args="--boot=true --clients=2000"
+ * mvn -f benchmarks/pom.xml compile exec:exec@load \
+ *     -Dload.args="--target=http://localhost:8081 --arrival=open --rate=800 --baseline=load/baseline.json"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int SEED_PROJETS = 500;
+    private static final int SEED_TASKS_PER_PROJET = 20;
+    private static final int SEED_USERS = 200;
+    private static final int SEED_PROJETS_PER_USER = 5;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        ConfigurableApplicationContext context = null;
+        if (config.boot()) {
+            context = boot();
+            config = config.withTarget(URI.create("http://localhost:"
+                    + context.getEnvironment().getProperty("local.server.port")));
+        }
+
+        LoadReport report;
+        LoadGenerator generator = new LoadGenerator(config);
+        try {
+            System.out.printf("Tir %s sur %s : %s, chauffe %s, mesure %s%n", config.arrival(), config.target(),
+                    config.arrival() == LoadConfig.Arrival.OPEN ? config.rate() + " req/s" : config.clients() + " clients",
+                    config.warmup(), config.duration());
+            report = generator.run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Files.createDirectories(config.output());
+        generator.writeHistograms(config.output());
+        Path summary = config.output().resolve("summary.json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(summary.toFile(), report);
+        System.out.print(report.table());
+        System.out.println("Résultats : " + config.output().toAbsolutePath());
+
+        if (config.baseline() != null) {
+            LoadReport baseline = objectMapper.readValue(config.baseline().toFile(), LoadReport.class);
+            List<String> regressions = report.regressionsAgainst(baseline, config.tolerance());
+            if (!regressions.isEmpty()) {
+                System.out.printf("Régressions par rapport à %s (tolérance %.0f %%) :%n", config.baseline(),
+                        config.tolerance() * 100);
+                regressions.forEach(r -> System.out.println("  " + r));
+                System.exit(2);
+            }
+            System.out.println("Aucune régression par rapport à " + config.baseline());
+        }
+    }
+
+    /**
+     * Démarre l'application sur un port libre et une base H2 en mémoire, sans la journalisation p6spy.
+     */
+    private static ConfigurableApplicationContext boot() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Exo1Application.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--decorator.datasource.enabled=false",
+                "--logging.level.root=WARN");
+        Fixtures.seed(context, SEED_PROJETS, SEED_TASKS_PER_PROJET, SEED_USERS, SEED_PROJETS_PER_USER);
+        return context;
+    }
+}
@@ -0,0 +1,111 @@
+package com.exo1.exo1.benchmark;
+
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.entity.User;
+import com.exo1.exo1.mapper.ProjetMapper;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapper;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.mapper.UserMapper;
+import com.exo1.exo1.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût des mappers MapStruct sur un graphe réaliste : un utilisateur, ses projets et leurs tâches
+ * (50 × 200 par défaut, soit 10 000 tâches). À lancer avec {@code -prof gc} pour suivre les allocations par opération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"50"})
+    private int projets;
+
+    @Param({"200"})
+    private int tasksPerProjet;
+
+    private AnnotationConfigApplicationContext context;
+    private UserMapper userMapper;
+    private ProjetMapper projetMapper;
+    private TaskMapper taskMapper;
+
+    private User user;
+    private UserDto userDto;
+    private List<Projet> projetList;
+    private List<ProjetDto> projetDtos;
+    private List<Task> taskList;
+
+    @Setup
+    public void setUp() {
+        // Les mappers générés (componentModel spring) reçoivent leurs mappers imbriqués par injection
+        context = new AnnotationConfigApplicationContext(UserMapperImpl.class, ProjetMapperImpl.class, TaskMapperImpl.class);
+        userMapper = context.getBean(UserMapper.class);
+        projetMapper = context.getBean(ProjetMapper.class);
+        taskMapper = context.getBean(TaskMapper.class);
+
+        user = Fixtures.user(projets, tasksPerProjet);
+        userDto = userMapper.toDto(user);
+        projetList = new ArrayList<>(user.getProjets());
+        projetDtos = projetMapper.toDtos(projetList);
+        taskList = projetList.stream().flatMap(projet -> projet.getTasks().stream()).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public List<ProjetDto> projetsToDtos() {
+        return projetMapper.toDtos(projetList);
+    }
+
+    @Benchmark
+    public List<TaskDto> tasksToDtos() {
+        return taskMapper.toDtos(taskList);
+    }
+
+    @Benchmark
+    public User userToEntity() {
+        return userMapper.toEntity(userDto);
+    }
+
+    @Benchmark
+    public List<Projet> projetsToEntities() {
+        return projetMapper.toEntities(projetDtos);
+    }
+
+    @Benchmark
+    public UserDto userRoundTrip() {
+        return userMapper.toDto(userMapper.toEntity(userMapper.toDto(user)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.exo1.exo1.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Requêtes envoyées par le générateur de charge : lectures paginées et créations.
+ */
+enum Operation {
+
+    TASKS(false, "/tasks?page=%d&size=10"),
+    PROJETS(false, "/projets?page=%d&size=10"),
+    USERS(false, "/users?page=%d&size=10"),
+    COUNT(false, "/count/all?page=%d&size=10"),
+    ADD_TASK(true, "/tasks/add"),
+    ADD_PROJET(true, "/projets/add"),
+    ADD_USER(true, "/users/add");
+
+    private final boolean write;
+    private final String path;
+
+    Operation(boolean write, String path) {
+        this.write = write;
+        this.path = path;
+    }
+
+    /**
+     * Nom de l'opération dans la configuration et les rapports (tasks, add-task...).
+     */
+    String key() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    static Operation of(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    boolean isWrite() {
+        return write;
+    }
+
+    /**
+     * Construit la requête.
+     *
+     * @param target l'URL de base de l'application.
+     * @param page la page lue, pour une lecture.
+     * @param sequence numéro unique de la requête, pour nommer les lignes créées.
+     * @param timeout le délai maximal de réponse.
+     */
+    HttpRequest request(URI target, int page, long sequence, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(timeout);
+        if (!write) {
+            return builder.uri(target.resolve(String.format(Locale.ROOT, path, page))).GET().build();
+        }
+        String body = switch (this) {
+            case ADD_TASK -> "{\"title\":\"Tâche de charge " + sequence + "\",\"status\":\"TODO\"}";
+            case ADD_PROJET -> "{\"name\":\"Projet de charge " + sequence + "\",\"description\":\"Généré par LoadTest\"}";
+            default -> "{\"name\":\"Utilisateur de charge " + sequence + "\",\"email\":\"charge" + sequence + "@exo1.fr\"}";
+        };
+        return builder.uri(target.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
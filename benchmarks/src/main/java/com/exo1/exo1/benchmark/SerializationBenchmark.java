@@ -0,0 +1,132 @@
+package com.exo1.exo1.benchmark;
+
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.entity.User;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.mapper.UserMapper;
+import com.exo1.exo1.mapper.UserMapperImpl;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Taille sur le réseau et coût de (dé)sérialisation des réponses par endpoint et par format négocié
+ * (JSON, Smile, CBOR ; {@code MessageFormatsConfig}). Les pages ont la forme des réponses de l'application :
+ * {@code GET /tasks?size=100}, {@code GET /projets?size=20} (20 tâches par projet)
+ * et {@code GET /users?size=10} (5 projets de 20 tâches par utilisateur).
+ * Les tailles brutes et compressées (gzip, comme {@code server.compression}) sont affichées à la construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int TASKS_PER_PROJET = 20;
+
+    @Param({"tasks", "projets", "users"})
+    private String endpoint;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private JavaType type;
+    private List<?> page;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        page = page(endpoint);
+        Class<?> element = switch (endpoint) {
+            case "tasks" -> TaskDto.class;
+            case "projets" -> ProjetDto.class;
+            default -> UserDto.class;
+        };
+        type = mapper.getTypeFactory().constructCollectionType(List.class, element);
+        payload = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s en %s : %d octets, %d octets en gzip%n", endpoint, format, payload.length,
+                gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip(mapper.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public List<?> deserialize() throws IOException {
+        return mapper.readValue(payload, type);
+    }
+
+    private static List<?> page(String endpoint) {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                UserMapperImpl.class, ProjetMapperImpl.class, TaskMapperImpl.class)) {
+            UserMapper userMapper = context.getBean(UserMapper.class);
+            return switch (endpoint) {
+                case "tasks" -> userMapper.toDto(Fixtures.user(5, TASKS_PER_PROJET)).getProjets().stream()
+                        .flatMap(projet -> projet.getTasks().stream()).toList();
+                case "projets" -> userMapper.toDto(Fixtures.user(20, TASKS_PER_PROJET)).getProjets();
+                case "users" -> users(userMapper, 10);
+                default -> throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+            };
+        }
+    }
+
+    private static List<UserDto> users(UserMapper userMapper, int count) {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = Fixtures.user(5, TASKS_PER_PROJET);
+            user.setId((long) i + 1);
+            user.setEmail("u" + i + "@exo1.fr");
+            users.add(userMapper.toDto(user));
+        }
+        return users;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
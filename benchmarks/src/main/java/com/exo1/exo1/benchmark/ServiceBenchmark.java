@@ -0,0 +1,126 @@
+package com.exo1.exo1.benchmark;
+
+import com.exo1.exo1.Exo1Application;
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.User;
+import com.exo1.exo1.repository.ProjetRepository;
+import com.exo1.exo1.repository.UserRepository;
+import com.exo1.exo1.service.ProjetService;
+import com.exo1.exo1.service.TaskService;
+import com.exo1.exo1.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Méthodes de service les plus appelées, contre une base H2 embarquée.
+ * Avec {@code cached=false}, un {@link NoOpCacheManager} remplace les caches Caffeine et le cache de second niveau
+ * Hibernate est désactivé, pour mesurer le chemin complet (requêtes SQL, hydratation Hibernate, mapping) ;
+ * avec {@code cached=true}, le coût d'un succès de cache.
+ * Les méthodes mesurées ouvrent elles-mêmes leur transaction en lecture seule, comme depuis un contrôleur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int PROJETS = 500;
+    private static final int TASKS_PER_PROJET = 20;
+    private static final int USERS = 200;
+    private static final int PROJETS_PER_USER = 5;
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private ProjetService projetService;
+    private UserService userService;
+    private List<Long> projetIds;
+    private List<Long> userIds;
+
+    @Configuration
+    static class NoCache {
+        @Bean
+        @Primary
+        CacheManager noOpCacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Exo1Application.class).web(WebApplicationType.NONE);
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--decorator.datasource.enabled=false",
+                "--logging.level.root=WARN"));
+        if (!cached) {
+            builder.sources(NoCache.class);
+            args.add("--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        }
+        context = builder.run(args.toArray(String[]::new));
+        taskService = context.getBean(TaskService.class);
+        projetService = context.getBean(ProjetService.class);
+        userService = context.getBean(UserService.class);
+        Fixtures.seed(context, PROJETS, TASKS_PER_PROJET, USERS, PROJETS_PER_USER);
+        projetIds = context.getBean(ProjetRepository.class).findAll().stream().map(Projet::getId).toList();
+        userIds = context.getBean(UserRepository.class).findAll().stream().map(User::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDto> taskFindAll() {
+        int page = ThreadLocalRandom.current().nextInt(PROJETS * TASKS_PER_PROJET / PAGE_SIZE);
+        return taskService.findAll(PageRequest.of(page, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ProjetDto projetFindById() {
+        long id = projetIds.get(ThreadLocalRandom.current().nextInt(projetIds.size()));
+        return projetService.findById(id);
+    }
+
+    @Benchmark
+    public UserDto userFindById() {
+        long id = userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+        return userService.findById(id);
+    }
+}
@@ -0,0 +1,138 @@
+package com.exo1.exo1.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Mesure du temps de démarrage : lance plusieurs fois la commande de démarrage de l'application et mesure
+ * le temps jusqu'à la première réponse 200 de l'URL interrogée, puis arrête l'application. Écrit le résumé
+ * {@code startup.json} et la sortie de chaque démarrage ({@code run-*.log}) dans le répertoire de sortie, puis
+ * se compare à la référence éventuelle ({@code --baseline}) : le code de sortie vaut 2 en cas de régression.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:exec@startup
+ * mvn -f benchmarks/pom.xml compile exec:exec@startup -Dstartup.command="java -XX:SharedArchiveFile=../target/exo1.jsa \
+ *     -Dspring.aot.enabled=true -jar ../target/exo1-0.0.1-SNAPSHOT.jar --spring.profiles.active=fast" \
+ *     -Dstartup.args="--baseline=../startup-baseline.json"
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupConfig config = StartupConfig.parse(args);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        if (responds(client, config)) {
+            throw new IllegalStateException(config.url() + " répond déjà : arrêter l'application avant la mesure");
+        }
+        Files.createDirectories(config.output());
+
+        System.out.printf("Démarrage de « %s » jusqu'à la première réponse de %s : %d mesures, %d de chauffe%n",
+                config.command(), config.url(), config.runs(), config.warmupRuns());
+        List<Double> runs = new ArrayList<>();
+        for (int i = 1; i <= config.warmupRuns() + config.runs(); i++) {
+            boolean warmup = i <= config.warmupRuns();
+            double millis = startOnce(client, config, config.output().resolve(warmup ? "warmup-" + i + ".log"
+                    : "run-" + (i - config.warmupRuns()) + ".log"));
+            System.out.printf("  %s %d : %.0f ms%n", warmup ? "chauffe" : "mesure", warmup ? i
+                    : i - config.warmupRuns(), millis);
+            if (!warmup) {
+                runs.add(millis);
+            }
+        }
+        StartupReport report = StartupReport.of(config, runs);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path summary = config.output().resolve("startup.json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(summary.toFile(), report);
+        System.out.print(report.table());
+        System.out.println("Résultats : " + config.output().toAbsolutePath());
+
+        if (config.baseline() != null) {
+            StartupReport baseline = objectMapper.readValue(config.baseline().toFile(), StartupReport.class);
+            List<String> regressions = report.regressionsAgainst(baseline, config.tolerance());
+            if (!regressions.isEmpty()) {
+                System.out.printf("Régressions par rapport à %s (tolérance %.0f %%) :%n", config.baseline(),
+                        config.tolerance() * 100);
+                regressions.forEach(r -> System.out.println("  " + r));
+                System.exit(2);
+            }
+            System.out.println("Aucune régression par rapport à " + config.baseline());
+        }
+    }
+
+    /**
+     * Démarre l'application, attend sa première réponse 200 puis l'arrête.
+     *
+     * @return le temps écoulé entre le lancement et la première réponse, en millisecondes.
+     * @throws IllegalStateException si l'application s'arrête ou ne répond pas dans le délai.
+     */
+    private static double startOnce(HttpClient client, StartupConfig config, Path log) throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder("sh", "-c", config.command())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + config.timeout().toNanos();
+            while (!responds(client, config)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("l'application s'est arrêtée avant de répondre, voir " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("pas de réponse après " + config.timeout() + ", voir " + log);
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            return (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private static boolean responds(HttpClient client, StartupConfig config) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(config.url()).timeout(Duration.ofSeconds(5)).build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Arrête l'application et le shell qui l'a lancée, de force passé le délai d'arrêt, et attend leur fin :
+     * le port doit être libéré avant le démarrage suivant.
+     */
+    private static void stop(Process process) throws Exception {
+        List<ProcessHandle> processes = new ArrayList<>(process.descendants().toList());
+        processes.add(process.toHandle());
+        processes.forEach(ProcessHandle::destroy);
+        for (ProcessHandle handle : processes) {
+            try {
+                handle.onExit().get(STOP_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                handle.destroyForcibly();
+                handle.onExit().get();
+            }
+        }
+    }
+}
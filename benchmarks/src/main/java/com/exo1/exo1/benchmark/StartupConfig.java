@@ -0,0 +1,57 @@
+package com.exo1.exo1.benchmark;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Paramètres d'une mesure du temps de démarrage, lus depuis les arguments {@code --clé=valeur}.
+ *
+ * @param command la commande qui démarre l'application, exécutée par {@code sh -c}.
+ * @param url l'URL interrogée jusqu'à la première réponse 200.
+ * @param runs le nombre de démarrages mesurés.
+ * @param warmupRuns le nombre de démarrages préalables, non mesurés (cache disque, compilation des jars).
+ * @param timeout le délai maximal d'un démarrage.
+ * @param output le répertoire des résultats.
+ * @param baseline le résumé d'une mesure précédente auquel se comparer, ou null.
+ * @param tolerance la dégradation tolérée par rapport à la référence (0.10 = 10 %).
+ */
+record StartupConfig(String command, URI url, int runs, int warmupRuns, Duration timeout, Path output,
+                     Path baseline, double tolerance) {
+
+    private static final Set<String> KEYS = Set.of("command", "url", "runs", "warmup-runs", "timeout", "output",
+            "baseline", "tolerance");
+
+    /**
+     * Lit la configuration.
+     *
+     * @param args les arguments {@code --clé=valeur}.
+     * @throws IllegalArgumentException si un argument est inconnu ou invalide, ou si la commande manque.
+     */
+    static StartupConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0 || !KEYS.contains(arg.substring(2, eq))) {
+                throw new IllegalArgumentException("argument inconnu : " + arg + " (attendu --clé=valeur parmi " + KEYS + ")");
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        if (!values.containsKey("command")) {
+            throw new IllegalArgumentException("--command manquant : commande de démarrage de l'application");
+        }
+        String baseline = values.get("baseline");
+        return new StartupConfig(
+                values.get("command"),
+                URI.create(values.getOrDefault("url", "http://localhost:8081/tasks?size=1")),
+                Integer.parseInt(values.getOrDefault("runs", "5")),
+                Integer.parseInt(values.getOrDefault("warmup-runs", "1")),
+                Duration.parse(values.getOrDefault("timeout", "PT2M")),
+                Path.of(values.getOrDefault("output", "target/startup")),
+                baseline == null ? null : Path.of(baseline),
+                Double.parseDouble(values.getOrDefault("tolerance", "0.10")));
+    }
+}
@@ -0,0 +1,67 @@
+package com.exo1.exo1.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Résumé d'une mesure du temps de démarrage, enregistré en JSON ({@code startup.json}) pour servir de référence
+ * aux mesures suivantes. Temps en millisecondes, du lancement de la commande à la première réponse 200.
+ *
+ * @param command la commande mesurée.
+ * @param url l'URL interrogée.
+ * @param runs le temps de chaque démarrage mesuré.
+ * @param min le démarrage le plus rapide.
+ * @param median le temps médian.
+ * @param max le démarrage le plus lent.
+ */
+record StartupReport(String command, String url, List<Double> runs, double min, double median, double max) {
+
+    static StartupReport of(StartupConfig config, List<Double> runs) {
+        List<Double> sorted = runs.stream().sorted().toList();
+        int n = sorted.size();
+        double median = n % 2 == 1 ? sorted.get(n / 2) : (sorted.get(n / 2 - 1) + sorted.get(n / 2)) / 2;
+        return new StartupReport(config.command(), config.url().toString(), runs, sorted.get(0), median,
+                sorted.get(n - 1));
+    }
+
+    /**
+     * Tableau des temps de démarrage.
+     */
+    String table() {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-10s %10s%n", "démarrage", "ms"));
+        for (int i = 0; i < runs.size(); i++) {
+            out.append(String.format(Locale.ROOT, "%-10d %10.0f%n", i + 1, runs.get(i)));
+        }
+        out.append(String.format(Locale.ROOT, "%-10s %10.0f%n%-10s %10.0f%n%-10s %10.0f%n",
+                "min", min, "médiane", median, "max", max));
+        return out.toString();
+    }
+
+    /**
+     * Compare cette mesure à une référence : un temps médian ou minimal plus élevé au-delà de la tolérance
+     * est une régression. Le maximum, sensible à la charge de la machine, n'est pas comparé.
+     *
+     * @param baseline la mesure de référence.
+     * @param tolerance la dégradation tolérée (0.10 = 10 %).
+     * @return les régressions constatées, vide si aucune.
+     */
+    List<String> regressionsAgainst(StartupReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        check(regressions, "médiane", baseline.median(), median, tolerance);
+        check(regressions, "min", baseline.min(), min, tolerance);
+        return regressions;
+    }
+
+    private static void check(List<String> regressions, String metric, double reference, double current,
+                              double tolerance) {
+        if (reference <= 0) {
+            return;
+        }
+        double change = (current - reference) / reference;
+        if (change > tolerance) {
+            regressions.add(String.format(Locale.ROOT, "%s : %.0f ms -> %.0f ms (%+.1f %%)", metric, reference,
+                    current, change * 100));
+        }
+    }
+}
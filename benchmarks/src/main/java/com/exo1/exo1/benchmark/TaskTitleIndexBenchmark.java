@@ -0,0 +1,101 @@
+package com.exo1.exo1.benchmark;
+
+import com.exo1.exo1.dto.TaskSuggestionDto;
+import com.exo1.exo1.service.TaskTitleIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence de l'autocomplétion {@link TaskTitleIndex#suggest} sur un index de {@code titles} titres distincts
+ * (un million par défaut), pour un préfixe court (beaucoup de titres candidats), un préfixe sélectif
+ * et un préfixe absent. La mémoire occupée par l'index est affichée à la construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TaskTitleIndexBenchmark {
+
+    private static final String[] VERBS = {"Corriger", "Rédiger", "Tester", "Déployer", "Relire", "Migrer",
+            "Documenter", "Analyser", "Optimiser", "Valider"};
+    private static final String[] OBJECTS = {"la connexion", "le paiement", "l'export CSV", "la recherche",
+            "le tableau de bord", "les notifications", "l'import", "le cache", "la facturation", "le profil"};
+    private static final int PREFIXES = 1024;
+
+    @Param({"1000000"})
+    private int titles;
+
+    @Param({"10"})
+    private int limit;
+
+    private TaskTitleIndex index;
+    private String[] shortPrefixes;
+    private String[] selectivePrefixes;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        index = new TaskTitleIndex(null);
+        Random random = new Random(42);
+        for (long id = 0; id < titles; id++) {
+            index.add(id, title(random, id));
+        }
+        long bytes = usedHeap() - before;
+        System.out.printf("%nIndex : %d titres, %d Mo, %d octets par titre%n", index.size(), bytes >> 20,
+                bytes / index.size());
+
+        shortPrefixes = new String[PREFIXES];
+        selectivePrefixes = new String[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            String title = title(random, random.nextInt(titles));
+            shortPrefixes[i] = title.substring(0, 2).toLowerCase();
+            selectivePrefixes[i] = title.substring(0, title.length() - 2);
+        }
+    }
+
+    @Benchmark
+    public List<TaskSuggestionDto> shortPrefix() {
+        return index.suggest(shortPrefixes[ThreadLocalRandom.current().nextInt(PREFIXES)], limit);
+    }
+
+    @Benchmark
+    public List<TaskSuggestionDto> selectivePrefix() {
+        return index.suggest(selectivePrefixes[ThreadLocalRandom.current().nextInt(PREFIXES)], limit);
+    }
+
+    @Benchmark
+    public List<TaskSuggestionDto> missingPrefix() {
+        return index.suggest("zzz", limit);
+    }
+
+    /**
+     * Titre distinct par identifiant, comme « Migrer l'import 48213 ».
+     */
+    private static String title(Random random, long id) {
+        return VERBS[random.nextInt(VERBS.length)] + " " + OBJECTS[random.nextInt(OBJECTS.length)] + " " + id;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -3,9 +3,13 @@ package com.exo1.exo1;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableCaching
+// Le cache entoure les transactions : une lecture servie par le cache n'ouvre ni transaction ni connexion
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableScheduling
 public class Exo1Application {
 
 	public static void main(String[] args) {
@@ -0,0 +1,57 @@
+package com.exo1.exo1.cli;
+
+import com.exo1.exo1.dto.ImportReportDto;
+import com.exo1.exo1.service.DataFormat;
+import com.exo1.exo1.service.ImportService;
+import com.exo1.exo1.service.ImportTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Import en masse en ligne de commande : importe le fichier {@code app.import.file} dans la table
+ * {@code app.import.table}, affiche le rapport puis arrête l'application.
+ * Le format est déduit de l'extension du fichier (.csv ou .ndjson) sauf si {@code app.import.format} est renseigné.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("app.import.file")
+public class ImportRunner implements ApplicationRunner {
+
+    private final ImportService importService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.import.file}")
+    private Path file;
+
+    @Value("${app.import.table}")
+    private String table;
+
+    @Value("${app.import.format:}")
+    private String format;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        DataFormat dataFormat = DataFormat.of(format.isEmpty()
+                ? file.getFileName().toString().substring(file.getFileName().toString().lastIndexOf('.') + 1)
+                : format);
+        ImportReportDto report;
+        try (InputStream in = Files.newInputStream(file)) {
+            report = importService.importData(ImportTable.of(table), dataFormat, in);
+        }
+        System.out.printf("%s : %d lignes lues, %d importées, %d rejetées en %d ms (%.0f lignes/s)%n",
+                report.getTable(), report.getRowsRead(), report.getRowsImported(), report.getRowsRejected(),
+                report.getDurationMs(), report.getRowsPerSecond());
+        report.getRejects().forEach(reject -> System.out.printf("  ligne %d : %s%n", reject.getLine(), reject.getReason()));
+        System.exit(SpringApplication.exit(context));
+    }
+}
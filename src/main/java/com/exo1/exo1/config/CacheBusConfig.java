@@ -0,0 +1,74 @@
+package com.exo1.exo1.config;
+
+import com.exo1.exo1.service.CacheInvalidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Cohérence des caches entre instances, activée par {@code app.cache.bus.enabled=true} (profil {@code cluster}).
+ * Les invalidations de chaque instance sont diffusées aux autres par PostgreSQL {@code LISTEN/NOTIFY}
+ * ({@link CacheInvalidationBus}), sans autre infrastructure que la base partagée.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.bus", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CacheBusConfig.CacheBusProperties.class)
+public class CacheBusConfig {
+
+    /**
+     * Bus d'invalidation. Les notifications sont envoyées par le pool de l'application, hors transaction ;
+     * l'écoute utilise une connexion dédiée au primaire ({@code spring.datasource}), ouverte hors pool.
+     *
+     * @param cacheInvalidator les caches de cette instance.
+     * @param jdbcTemplate l'accès JDBC de l'application, pour {@code pg_notify}.
+     * @param dataSourceProperties la configuration {@code spring.datasource}, pour la connexion d'écoute.
+     * @param properties la configuration du bus.
+     * @param meterRegistry le registre des métriques, s'il existe.
+     * @return le bus, démarré avec le contexte.
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(CacheInvalidator cacheInvalidator, JdbcTemplate jdbcTemplate,
+                                                     DataSourceProperties dataSourceProperties, CacheBusProperties properties,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        DriverManagerDataSource listenerDataSource = new DriverManagerDataSource(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        // Connexion repérable dans pg_stat_activity
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("ApplicationName", "exo1-cache-bus");
+        listenerDataSource.setConnectionProperties(connectionProperties);
+        String channel = properties.getChannel();
+        return new CacheInvalidationBus(cacheInvalidator, channel, listenerDataSource,
+                payload -> jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload),
+                properties.getFlushInterval(), properties.getReconnectDelay(), properties.getMaxPending(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Paramètres du bus d'invalidation, préfixe {@code app.cache.bus}.
+     */
+    @Data
+    @ConfigurationProperties(prefix = "app.cache.bus")
+    public static class CacheBusProperties {
+        private boolean enabled;
+        // Canal LISTEN/NOTIFY partagé par les instances
+        private String channel = "cache_invalidation";
+        // Intervalle d'envoi des lots : borne le délai de propagation des invalidations
+        private Duration flushInterval = Duration.ofMillis(50);
+        // Attente avant de rouvrir la connexion d'écoute perdue (les caches locaux sont vidés à la reconnexion)
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+        // Invalidations en attente d'envoi au-delà desquelles les autres instances vident tous leurs caches
+        private int maxPending = 10_000;
+    }
+}
@@ -0,0 +1,62 @@
+package com.exo1.exo1.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration des caches Spring sur Caffeine (éviction W-TinyLFU).
+ * Chaque région est bornée en taille ou en poids et expire après écriture et/ou inactivité,
+ * selon la spécification Caffeine déclarée dans application.properties.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheConfig.CacheSpecs.class)
+public class CacheConfig {
+
+    /**
+     * Construit le gestionnaire de caches à partir des spécifications par région.
+     * Les régions non déclarées utilisent la spécification par défaut.
+     *
+     * @param cacheSpecs les spécifications Caffeine par nom de cache.
+     * @return le gestionnaire de caches.
+     */
+    @Bean
+    public CacheManager cacheManager(CacheSpecs cacheSpecs) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeine(cacheSpecs.getDefaultSpec()));
+        cacheSpecs.getSpecs().forEach((name, spec) -> cacheManager.registerCustomCache(name, caffeine(spec).build()));
+        return cacheManager;
+    }
+
+    /**
+     * Crée un builder Caffeine à partir d'une spécification.
+     * Avec maximumWeight, le poids d'une entrée est le nombre d'éléments de la liste mise en cache,
+     * ce qui borne les régions de pages ou de recherches par nombre de DTO plutôt que par nombre de clés.
+     */
+    private static Caffeine<Object, Object> caffeine(String spec) {
+        Caffeine<Object, Object> caffeine = Caffeine.from(spec).recordStats();
+        if (spec.contains("maximumWeight")) {
+            caffeine.weigher((key, value) -> value instanceof Collection<?> values ? Math.max(1, values.size()) : 1);
+        }
+        return caffeine;
+    }
+
+    /**
+     * Spécifications Caffeine des caches, préfixe {@code app.cache}.
+     */
+    @Data
+    @ConfigurationProperties(prefix = "app.cache")
+    public static class CacheSpecs {
+        private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m";
+        private Map<String, String> specs = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,319 @@
+package com.exo1.exo1.config;
+
+import com.exo1.exo1.service.CacheInvalidation;
+import com.exo1.exo1.service.CacheInvalidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bus d'invalidation des caches entre instances, sur PostgreSQL {@code LISTEN/NOTIFY}.
+ * Les invalidations publiées par {@link CacheInvalidator} sont mises en file après le commit de la transaction
+ * qui les a produites (une instance distante qui relirait avant le commit remettrait en cache l'ancienne valeur),
+ * dédoublonnées et envoyées par lots toutes les {@code flush-interval}, en notifications de moins de 8000 octets.
+ * Chaque instance écoute le canal sur une connexion dédiée, hors pool, et rejoue les invalidations des autres.
+ * <p>
+ * Une invalidation perdue laisserait une entrée périmée jusqu'à son expiration : à chaque (re)connexion de l'écoute,
+ * les caches locaux sont vidés ; si l'envoi échoue, les invalidations restent en file, et au-delà de
+ * {@code max-pending} sont remplacées par un vidage de tous les caches des autres instances.
+ */
+@Slf4j
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    // Limite d'une notification PostgreSQL (8000 octets), moins une marge
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_MILLIS = 500;
+    private static final Duration HEARTBEAT = Duration.ofSeconds(5);
+    private static final CacheInvalidation CLEAR_ALL = CacheInvalidation.clear(null);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CacheInvalidator cacheInvalidator;
+    private final String channel;
+    private final DataSource listenerDataSource;
+    private final Consumer<String> notifier;
+    private final Duration flushInterval;
+    private final Duration reconnectDelay;
+    private final int maxPending;
+    private final List<CacheInvalidation> pending = new ArrayList<>();
+    private final Counter sent;
+    private final Counter received;
+    private final Counter resyncs;
+    private final Timer propagation;
+    private boolean saturated;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private ScheduledExecutorService flusher;
+    private Thread listener;
+
+    /**
+     * @param cacheInvalidator les caches de cette instance, sur lesquels les invalidations reçues sont rejouées.
+     * @param channel le canal LISTEN/NOTIFY (identifiant SQL en minuscules).
+     * @param listenerDataSource la source des connexions d'écoute, ouvertes hors pool et gardées ouvertes.
+     * @param notifier l'envoi d'une notification sur le canal ({@code pg_notify}).
+     * @param flushInterval l'intervalle d'envoi des lots, qui borne le délai de propagation.
+     * @param reconnectDelay l'attente avant de rouvrir la connexion d'écoute perdue.
+     * @param maxPending le nombre d'invalidations en attente d'envoi au-delà duquel elles sont remplacées par un vidage.
+     * @param meterRegistry le registre des métriques {@code cache.bus.*}.
+     */
+    public CacheInvalidationBus(CacheInvalidator cacheInvalidator, String channel, DataSource listenerDataSource,
+                                Consumer<String> notifier, Duration flushInterval, Duration reconnectDelay,
+                                int maxPending, MeterRegistry meterRegistry) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        }
+        this.cacheInvalidator = cacheInvalidator;
+        this.channel = channel;
+        this.listenerDataSource = listenerDataSource;
+        this.notifier = notifier;
+        this.flushInterval = flushInterval;
+        this.reconnectDelay = reconnectDelay;
+        this.maxPending = maxPending;
+        this.sent = Counter.builder("cache.bus.messages").tag("direction", "sent")
+                .description("Notifications d'invalidation envoyées ou reçues").register(meterRegistry);
+        this.received = Counter.builder("cache.bus.messages").tag("direction", "received")
+                .description("Notifications d'invalidation envoyées ou reçues").register(meterRegistry);
+        this.resyncs = Counter.builder("cache.bus.resyncs")
+                .description("Vidages des caches locaux à la (re)connexion du bus").register(meterRegistry);
+        this.propagation = Timer.builder("cache.bus.propagation")
+                .description("Délai entre l'envoi d'un lot par une autre instance et son application")
+                .register(meterRegistry);
+        Gauge.builder("cache.bus.pending", this, CacheInvalidationBus::getPending)
+                .description("Invalidations en attente d'envoi").register(meterRegistry);
+        Gauge.builder("cache.bus.connected", this, bus -> bus.isConnected() ? 1 : 0)
+                .description("Écoute du canal active (1) ou non (0)").register(meterRegistry);
+    }
+
+    /**
+     * Met en file une invalidation de cette instance, après le commit de la transaction en cours s'il y en a une.
+     *
+     * @param invalidation l'invalidation publiée par {@link CacheInvalidator}.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(CacheInvalidation invalidation) {
+        synchronized (pending) {
+            if (saturated) {
+                return;
+            }
+            if (pending.size() >= maxPending) {
+                pending.clear();
+                pending.add(CLEAR_ALL);
+                saturated = true;
+                return;
+            }
+            pending.add(transmissible(invalidation));
+        }
+    }
+
+    /**
+     * Envoie les invalidations en attente, dédoublonnées et regroupées en notifications.
+     * En cas d'échec, elles sont remises en file pour l'envoi suivant.
+     */
+    public void flush() {
+        List<CacheInvalidation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(new LinkedHashSet<>(pending));
+            pending.clear();
+            saturated = false;
+        }
+        try {
+            for (String payload : encode(batch)) {
+                notifier.accept(payload);
+                sent.increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Envoi des invalidations de cache impossible, nouvel essai au prochain lot : {}", e.getMessage());
+            synchronized (pending) {
+                pending.addAll(0, batch);
+                if (pending.size() > maxPending) {
+                    pending.clear();
+                    pending.add(CLEAR_ALL);
+                    saturated = true;
+                }
+            }
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public int getPending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "cache-bus-flush"));
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        listener = new Thread(this::listen, "cache-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        listener.interrupt();
+        // Les invalidations des dernières écritures ne doivent pas être perdues à l'arrêt
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Regroupe les invalidations en notifications JSON de moins de {@link #MAX_PAYLOAD_BYTES} octets.
+     */
+    List<String> encode(List<CacheInvalidation> batch) {
+        String head = "{\"node\":\"" + nodeId + "\",\"sentAt\":" + System.currentTimeMillis() + ",\"ops\":[";
+        int limit = MAX_PAYLOAD_BYTES - head.length() - 2;
+        List<String> payloads = new ArrayList<>();
+        StringBuilder ops = new StringBuilder();
+        int bytes = 0;
+        for (CacheInvalidation invalidation : batch) {
+            String op = json(invalidation);
+            int opBytes = op.getBytes(StandardCharsets.UTF_8).length;
+            if (opBytes + 1 > limit) {
+                // Clé trop longue pour une notification : tout le cache est vidé à la place
+                op = json(CacheInvalidation.clear(invalidation.cache()));
+                opBytes = op.length();
+            }
+            if (bytes > 0 && bytes + 1 + opBytes > limit) {
+                payloads.add(head + ops + "]}");
+                ops.setLength(0);
+                bytes = 0;
+            }
+            if (bytes > 0) {
+                ops.append(',');
+                bytes++;
+            }
+            ops.append(op);
+            bytes += opBytes;
+        }
+        payloads.add(head + ops + "]}");
+        return payloads;
+    }
+
+    /**
+     * Rejoue sur les caches locaux les invalidations d'une notification émise par une autre instance.
+     */
+    void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Notification d'invalidation illisible ignorée : {}", e.getOriginalMessage());
+            return;
+        }
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+        message.ops().forEach(cacheInvalidator::apply);
+        received.increment();
+        propagation.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - message.sentAt())));
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = listenerDataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Les invalidations émises pendant la déconnexion sont perdues : resynchronisation par vidage
+                cacheInvalidator.apply(CLEAR_ALL);
+                resyncs.increment();
+                connected = true;
+                log.info("Bus d'invalidation à l'écoute du canal {}, caches locaux vidés", channel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long lastCheck = System.nanoTime();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    } else if (System.nanoTime() - lastCheck > HEARTBEAT.toNanos()) {
+                        // Une connexion coupée sans fermeture ne lève pas d'erreur en attente de notifications
+                        if (!connection.isValid((int) HEARTBEAT.toSeconds())) {
+                            throw new SQLException("Listener connection is no longer valid");
+                        }
+                        lastCheck = System.nanoTime();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Bus d'invalidation déconnecté, reconnexion dans {} : {}", reconnectDelay, e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            pause();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Seules les clés entières ou textuelles sont transmises telles quelles ; pour les autres, tout le cache est vidé.
+     */
+    private static CacheInvalidation transmissible(CacheInvalidation invalidation) {
+        Object key = invalidation.key();
+        if (key == null || key instanceof String || key instanceof Long || key instanceof Integer) {
+            return invalidation;
+        }
+        return CacheInvalidation.clear(invalidation.cache());
+    }
+
+    private String json(CacheInvalidation invalidation) {
+        try {
+            return objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record Message(String node, long sentAt, List<CacheInvalidation> ops) {
+    }
+}
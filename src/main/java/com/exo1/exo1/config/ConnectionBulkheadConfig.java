@@ -0,0 +1,108 @@
+package com.exo1.exo1.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Bulkhead devant le pool de connexions, activé par {@code app.datasource.bulkhead.enabled=true}
+ * (profil {@code virtual}). Avec les threads virtuels, le nombre de requêtes simultanées n'est plus borné
+ * par le pool de threads de Tomcat : le sémaphore, dimensionné sur le pool Hikari, fait attendre
+ * les requêtes en excédent sans les transformer en demandes de connexion.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.bulkhead", name = "enabled", havingValue = "true")
+public class ConnectionBulkheadConfig {
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Enveloppe le pool Hikari dans une {@link BulkheadDataSource}.
+     * Déclaré statique : un post-processeur est instancié avant les autres beans de la configuration.
+     * Il passe avant la décoration p6spy (elle aussi appliquée avant initialisation), qui enveloppe alors le bulkhead.
+     *
+     * @param environment l'environnement, pour lire {@code app.datasource.bulkhead}.
+     * @return le post-processeur.
+     */
+    @Bean
+    public static BeanPostProcessor connectionBulkheadPostProcessor(Environment environment) {
+        BulkheadProperties properties = Binder.get(environment)
+                .bindOrCreate("app.datasource.bulkhead", BulkheadProperties.class);
+        return new BulkheadPostProcessor(properties);
+    }
+
+    /**
+     * Publie l'état du bulkhead : {@code datasource.bulkhead.available} (connexions libres)
+     * et {@code datasource.bulkhead.waiting} (threads en attente).
+     *
+     * @param dataSource la source de données de l'application.
+     * @return le binder des métriques.
+     */
+    @Bean
+    public MeterBinder connectionBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead;
+            try {
+                if (!dataSource.isWrapperFor(BulkheadDataSource.class)) {
+                    return;
+                }
+                bulkhead = dataSource.unwrap(BulkheadDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("datasource.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                    .description("Connexions disponibles dans le bulkhead")
+                    .register(registry);
+            Gauge.builder("datasource.bulkhead.waiting", bulkhead, BulkheadDataSource::getWaiting)
+                    .description("Threads en attente d'une connexion")
+                    .register(registry);
+        };
+    }
+
+    private record BulkheadPostProcessor(BulkheadProperties properties) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource hikari)) {
+                return bean;
+            }
+            return new BulkheadDataSource(hikari, permits(hikari), hikari.getConnectionTimeout());
+        }
+
+        /**
+         * Avant son initialisation, le pool n'a pas encore appliqué sa taille par défaut (-1 si non configurée).
+         */
+        private int permits(HikariDataSource hikari) {
+            if (properties.getPermits() > 0) {
+                return properties.getPermits();
+            }
+            return hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    /**
+     * Paramètres du bulkhead, préfixe {@code app.datasource.bulkhead}.
+     */
+    @Data
+    public static class BulkheadProperties {
+        private boolean enabled;
+        // Connexions simultanées autorisées ; 0 pour reprendre spring.datasource.hikari.maximum-pool-size
+        private int permits;
+    }
+}
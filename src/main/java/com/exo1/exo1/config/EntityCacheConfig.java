@@ -0,0 +1,87 @@
+package com.exo1.exo1.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.Data;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de second niveau Hibernate sur Caffeine, via JCache : entités et collections annotées {@code @Cache}.
+ * Chaque région est créée ici, bornée en nombre d'entrées et en durée de vie selon {@code app.entity-cache.regions} ;
+ * une région annotée mais non déclarée empêche le démarrage ({@code hibernate.javax.cache.missing_cache_strategy=fail}).
+ * Le cache est activé par {@code hibernate.cache.use_second_level_cache} (application.properties).
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheConfig.EntityCacheProperties.class)
+public class EntityCacheConfig {
+
+    /**
+     * Gestionnaire JCache des régions Hibernate. Propre à ce contexte (URI unique) : deux contextes
+     * d'une même JVM, comme les contextes de test, ne partagent pas leurs entrées.
+     *
+     * @param properties les régions et leurs bornes.
+     * @return le gestionnaire, fermé avec le contexte.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("exo1-entity-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        properties.getRegions().forEach((name, region) -> cacheManager.createCache(name, configuration(region)));
+        return cacheManager;
+    }
+
+    /**
+     * Transmet le gestionnaire à Hibernate, qui y trouve ses régions au lieu d'en créer.
+     *
+     * @param entityCacheManager le gestionnaire des régions.
+     * @return la personnalisation des propriétés Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheManagerCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    /**
+     * Région bornée en nombre d'entrées et expirant après écriture. Les entrées sont conservées par référence :
+     * Hibernate y range des états désassemblés, jamais modifiés, qu'il est inutile de copier.
+     */
+    private static CaffeineConfiguration<Object, Object> configuration(Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+        return configuration;
+    }
+
+    /**
+     * Régions du cache de second niveau, préfixe {@code app.entity-cache}, par nom de région ({@code @Cache(region)}).
+     */
+    @Data
+    @ConfigurationProperties(prefix = "app.entity-cache")
+    public static class EntityCacheProperties {
+        private Map<String, Region> regions = new LinkedHashMap<>();
+    }
+
+    /**
+     * Bornes d'une région.
+     */
+    @Data
+    public static class Region {
+        private long maximumSize = 1000;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+}
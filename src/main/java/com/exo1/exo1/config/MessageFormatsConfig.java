@@ -0,0 +1,36 @@
+package com.exo1.exo1.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Encodages binaires des réponses REST, choisis par l'en-tête {@code Accept} :
+ * {@code application/cbor} et {@code application/x-jackson-smile}, plus compacts et plus rapides à produire
+ * que le JSON pour les pages de projets et d'utilisateurs (tâches imbriquées).
+ * Le JSON reste le format par défaut (en-tête Accept absent ou générique) : ces convertisseurs sont placés
+ * après celui du JSON. Ils partagent la configuration Jackson de Spring Boot ({@code spring.jackson.*}).
+ */
+@Configuration
+public class MessageFormatsConfig {
+
+    /**
+     * @param builder le builder Jackson de Spring Boot (une instance par injection).
+     * @return le convertisseur CBOR (RFC 8949).
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.cbor().build());
+    }
+
+    /**
+     * @param builder le builder Jackson de Spring Boot (une instance par injection).
+     * @return le convertisseur Smile (JSON binaire de Jackson, noms de champs partagés dans un document).
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.smile().build());
+    }
+}
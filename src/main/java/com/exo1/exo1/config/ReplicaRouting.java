@@ -0,0 +1,209 @@
+package com.exo1.exo1.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routage des connexions entre le primaire et les réplicas en lecture.
+ * Une connexion demandée dans une transaction en lecture seule ({@code @Transactional(readOnly = true)}) est prise
+ * à tour de rôle sur un réplica en bonne santé ; toutes les autres, ou si aucun réplica n'est disponible,
+ * sur le primaire. Le choix est fait à l'obtention de la connexion physique : la source de données
+ * ({@link #dataSource()}) doit être placée derrière un {@code LazyConnectionDataSourceProxy}, qui ne la demande
+ * qu'à la première instruction, une fois la transaction et son caractère lecture seule déclarés.
+ * <p>
+ * L'état des réplicas (connexion valide, retard de réplication) est vérifié périodiquement ; un réplica
+ * injoignable lors d'une demande de connexion est écarté jusqu'à la vérification suivante.
+ * Les lectures d'un client qui vient d'écrire peuvent être forcées sur le primaire ({@link #requirePrimary}).
+ */
+@Slf4j
+public class ReplicaRouting implements Closeable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final DataSource dataSource = new RoutingDataSource();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+
+    /**
+     * @param primary le pool du primaire.
+     * @param replicas les pools des réplicas, nommés par leur {@code poolName}.
+     * @param maxLag le retard de réplication au-delà duquel un réplica est écarté.
+     * @param lagQuery la requête qui renvoie le retard du réplica en secondes, ou vide pour ne pas le mesurer.
+     */
+    public ReplicaRouting(HikariDataSource primary, List<HikariDataSource> replicas, Duration maxLag, String lagQuery) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Force sur le primaire les connexions demandées par le thread courant, jusqu'à {@link #clearPrimaryRequired()}.
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clearPrimaryRequired() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * @return la source de données routée, à envelopper dans un {@code LazyConnectionDataSourceProxy}.
+     */
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    /**
+     * Vérifie chaque réplica : connexion valide et retard de réplication inférieur au maximum.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval:PT5S}")
+    public void checkReplicas() {
+        replicas.forEach(Replica::check);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private Connection connection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_REQUIRED.get() == null) {
+            Replica replica = nextAvailable();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.pool.getConnection();
+                    replica.connections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.update(false, null, e.getMessage());
+                }
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private Replica nextAvailable() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Un réplica, son état lors de la dernière vérification et le nombre de connexions qu'il a servies.
+     */
+    public final class Replica {
+
+        private final HikariDataSource pool;
+        private final LongAdder connections = new LongAdder();
+        // Écarté tant que la première vérification n'a pas eu lieu
+        private volatile boolean available;
+        private volatile Double lagSeconds;
+        private volatile String error = "not checked yet";
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        public String getName() {
+            return pool.getPoolName();
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * @return le retard de réplication mesuré, en secondes, ou null s'il n'a pas pu l'être.
+         */
+        public Double getLagSeconds() {
+            return lagSeconds;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getConnections() {
+            return connections.sum();
+        }
+
+        private void check() {
+            try (Connection connection = pool.getConnection()) {
+                double lag = 0;
+                if (lagQuery != null && !lagQuery.isBlank()) {
+                    try (Statement statement = connection.createStatement();
+                         ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                        resultSet.next();
+                        lag = resultSet.getDouble(1);
+                    }
+                }
+                boolean caughtUp = lag * 1000 <= maxLag.toMillis();
+                update(caughtUp, lag, caughtUp ? null : "replication lag " + lag + " s exceeds " + maxLag);
+            } catch (SQLException e) {
+                update(false, null, e.getMessage());
+            }
+        }
+
+        private void update(boolean available, Double lagSeconds, String error) {
+            if (available != this.available) {
+                if (available) {
+                    log.info("Réplica {} disponible pour les lectures", getName());
+                } else {
+                    log.warn("Réplica {} écarté des lectures : {}", getName(), error);
+                }
+            }
+            this.available = available;
+            this.lagSeconds = lagSeconds;
+            this.error = error;
+        }
+    }
+
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Routed connections use the pool credentials");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.exo1.exo1.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Data;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lectures sur réplicas, activées par {@code app.datasource.replica.enabled=true} (profil {@code replica}).
+ * Les transactions en lecture seule des services sont envoyées sur les réplicas ({@link ReplicaRouting}),
+ * les écritures sur le primaire ({@code spring.datasource}). Pendant {@code sticky-window} après une requête
+ * d'écriture, les lectures du même client (cookie) restent sur le primaire, pour qu'il relise ce qu'il vient
+ * d'écrire malgré le retard de réplication.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingConfig.ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    static final String STICKY_COOKIE = "primary-until";
+
+    /**
+     * Pools du primaire et des réplicas. Les réplicas reprennent l'utilisateur, le mot de passe et les réglages
+     * {@code spring.datasource.hikari} du primaire ; leur indisponibilité au démarrage n'empêche pas l'application
+     * de démarrer.
+     *
+     * @param dataSourceProperties la configuration {@code spring.datasource} du primaire.
+     * @param properties la configuration des réplicas.
+     * @param environment l'environnement, pour lire {@code spring.datasource.hikari}.
+     * @param meterRegistry le registre des métriques des pools, s'il existe.
+     * @return le routage, qui ferme les pools à l'arrêt.
+     */
+    @Bean
+    public ReplicaRouting replicaRouting(DataSourceProperties dataSourceProperties, ReplicaProperties properties,
+                                         Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = pool(dataSourceProperties, dataSourceProperties.determineUrl(), environment);
+        primary.setPoolName("primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            HikariDataSource replica = pool(dataSourceProperties, properties.getUrls().get(i), environment);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        meterRegistry.ifAvailable(registry -> {
+            MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry);
+            primary.setMetricsTrackerFactory(metrics);
+            replicas.forEach(replica -> replica.setMetricsTrackerFactory(metrics));
+        });
+        return new ReplicaRouting(primary, replicas, properties.getMaxLag(), properties.getLagQuery());
+    }
+
+    /**
+     * Source de données routée, décorée par p6spy comme la source de données habituelle : la décoration,
+     * qui interroge la connexion dès son obtention, doit rester sous le proxy paresseux de {@link #dataSource}.
+     *
+     * @param replicaRouting le routage primaire / réplicas.
+     * @return la source de données routée.
+     */
+    @Bean
+    public DataSource routedDataSource(ReplicaRouting replicaRouting) {
+        return replicaRouting.dataSource();
+    }
+
+    /**
+     * Source de données de l'application : la connexion physique, donc le serveur, n'est choisie
+     * qu'à la première instruction de la transaction. Exclue de la décoration p6spy
+     * ({@code decorator.datasource.exclude-beans=dataSource}).
+     *
+     * @param routedDataSource la source de données routée et décorée.
+     * @return la source de données.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("routedDataSource") DataSource routedDataSource) {
+        return new LazyConnectionDataSourceProxy(routedDataSource);
+    }
+
+    /**
+     * Rend la connexion à la fin de chaque transaction au lieu de la garder jusqu'à la fermeture de la session :
+     * si une session couvre plusieurs transactions (open-in-view réactivé), une connexion de réplica obtenue
+     * par une lecture servirait sinon aux écritures suivantes.
+     *
+     * @return la personnalisation d'Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Lectures de ses propres écritures : une requête d'écriture dépose chez le client le cookie
+     * {@value #STICKY_COOKIE}, qui porte l'instant (epoch, en millisecondes) jusqu'auquel ses lectures sont servies
+     * par le primaire ({@code sticky-window}). L'état est porté par le client et non par l'instance : il vaut
+     * quelle que soit l'instance qui reçoit la requête suivante, et deux clients derrière le même proxy
+     * ne se gênent pas. Suppose des horloges d'instances synchronisées à une fraction de {@code sticky-window} près.
+     *
+     * @param properties la configuration des réplicas.
+     * @return le filtre.
+     */
+    @Bean
+    public OncePerRequestFilter replicaStickinessFilter(ReplicaProperties properties) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                long now = System.currentTimeMillis();
+                if (primaryUntil(request) > now) {
+                    ReplicaRouting.requirePrimary();
+                }
+                if (!SAFE_METHODS.contains(request.getMethod())) {
+                    // Posé avant la réponse, qui peut être validée (en-têtes envoyés) par le contrôleur
+                    Cookie sticky = new Cookie(STICKY_COOKIE, Long.toString(now + properties.getStickyWindow().toMillis()));
+                    sticky.setPath("/");
+                    sticky.setHttpOnly(true);
+                    sticky.setMaxAge((int) properties.getStickyWindow().toSeconds() + 1);
+                    response.addCookie(sticky);
+                }
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ReplicaRouting.clearPrimaryRequired();
+                }
+            }
+        };
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (STICKY_COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * État des réplicas dans {@code /actuator/health} (composant {@code replicas}). Un réplica indisponible
+     * ne rend pas l'application indisponible : ses lectures sont servies par le primaire.
+     *
+     * @param replicaRouting le routage primaire / réplicas.
+     * @return l'indicateur de santé.
+     */
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaRouting replicaRouting) {
+        return () -> {
+            Health.Builder health = Health.up();
+            for (ReplicaRouting.Replica replica : replicaRouting.getReplicas()) {
+                Map<String, Object> details = new LinkedHashMap<>();
+                details.put("available", replica.isAvailable());
+                details.put("lagSeconds", replica.getLagSeconds());
+                details.put("error", replica.getError());
+                health.withDetail(replica.getName(), details);
+            }
+            return health.build();
+        };
+    }
+
+    /**
+     * Publie {@code datasource.replica.available}, {@code datasource.replica.lag} (secondes)
+     * et {@code datasource.routing.connections} (connexions servies, par serveur).
+     *
+     * @param replicaRouting le routage primaire / réplicas.
+     * @return le binder des métriques.
+     */
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRouting replicaRouting) {
+        return registry -> {
+            FunctionCounter.builder("datasource.routing.connections", replicaRouting, ReplicaRouting::getPrimaryConnections)
+                    .description("Connexions obtenues, par serveur")
+                    .tag("target", "primary")
+                    .register(registry);
+            for (ReplicaRouting.Replica replica : replicaRouting.getReplicas()) {
+                FunctionCounter.builder("datasource.routing.connections", replica, ReplicaRouting.Replica::getConnections)
+                        .description("Connexions obtenues, par serveur")
+                        .tag("target", replica.getName())
+                        .register(registry);
+                Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                        .description("Réplica utilisé pour les lectures (1) ou écarté (0)")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                Gauge.builder("datasource.replica.lag", replica, r -> r.getLagSeconds() == null ? Double.NaN : r.getLagSeconds())
+                        .description("Retard de réplication mesuré")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties dataSourceProperties, String url, Environment environment) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        return pool;
+    }
+
+    /**
+     * Paramètres des réplicas, préfixe {@code app.datasource.replica}.
+     */
+    @Data
+    @ConfigurationProperties(prefix = "app.datasource.replica")
+    public static class ReplicaProperties {
+        private boolean enabled;
+        // URL JDBC des réplicas ; utilisateur, mot de passe et réglages Hikari sont ceux du primaire
+        private List<String> urls = new ArrayList<>();
+        // Retard de réplication au-delà duquel un réplica est écarté des lectures
+        private Duration maxLag = Duration.ofSeconds(10);
+        // Intervalle des vérifications (lu par ReplicaRouting#checkReplicas)
+        private Duration checkInterval = Duration.ofSeconds(5);
+        // Attente maximale d'une connexion de réplica avant de se rabattre sur le primaire
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+        // Durée pendant laquelle un client qui vient d'écrire lit sur le primaire
+        private Duration stickyWindow = Duration.ofSeconds(5);
+        // Retard du réplica en secondes (0 s'il a rejoué tout le WAL reçu, ou s'il n'est pas en réplication)
+        private String lagQuery = """
+                SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END""";
+    }
+}
@@ -0,0 +1,56 @@
+package com.exo1.exo1.controller;
+
+import com.exo1.exo1.service.EntityTags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Requêtes conditionnelles sur les ressources versionnées ({@link EntityTags}).
+ * Un {@code If-None-Match} à jour est servi en 304 à partir de l'ETag seul, sans charger ni sérialiser
+ * la ressource ; sinon la réponse porte l'ETag de la représentation renvoyée.
+ * L'ETag ne dépend pas du format négocié (JSON, CBOR, Smile) : les réponses portent {@code Vary: Accept}
+ * pour qu'un cache ne serve pas un format à la place d'un autre.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Répond à un GET conditionnel.
+     *
+     * @param id l'identifiant de la ressource.
+     * @param ifNoneMatch l'en-tête If-None-Match, ou null.
+     * @param etag l'ETag actuel de la ressource (version seule, ou cache).
+     * @param load le chargement de la représentation complète.
+     * @param tagOf l'ETag d'une représentation chargée.
+     * @return 304 si le client est à jour, sinon 200 avec la représentation et son ETag.
+     */
+    static <T> ResponseEntity<T> get(long id, String ifNoneMatch, LongFunction<String> etag,
+                                     LongFunction<T> load, Function<T, String> tagOf) {
+        if (ifNoneMatch != null) {
+            String current = etag.apply(id);
+            if (EntityTags.matchesWeakly(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        return tagged(load.apply(id), tagOf);
+    }
+
+    /**
+     * @param body la représentation renvoyée, éventuellement nulle.
+     * @param tagOf l'ETag d'une représentation.
+     * @return 200 avec la représentation et, si elle existe, son ETag.
+     */
+    static <T> ResponseEntity<T> tagged(T body, Function<T, String> tagOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (body != null) {
+            response.eTag(tagOf.apply(body));
+        }
+        return response.body(body);
+    }
+}
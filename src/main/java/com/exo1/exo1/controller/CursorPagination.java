@@ -0,0 +1,62 @@
+package com.exo1.exo1.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Curseurs opaques de la pagination par curseur ({@code ?after=<curseur>&size=}).
+ * Le curseur encode l'identifiant du dernier élément reçu ; le curseur suivant est renvoyé
+ * dans l'en-tête {@value #NEXT_CURSOR_HEADER} tant que la page est pleine.
+ * Un curseur vide ({@code ?after=}) démarre au début de la collection.
+ */
+final class CursorPagination {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPagination() {
+    }
+
+    /**
+     * Décode un curseur reçu du client.
+     *
+     * @param cursor le curseur opaque, éventuellement vide.
+     * @return l'identifiant à partir duquel reprendre (exclu).
+     */
+    static long decode(String cursor) {
+        if (cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Construit la réponse d'une page obtenue par curseur, avec l'en-tête du curseur suivant.
+     *
+     * @param items les éléments de la page, triés par identifiant.
+     * @param size la taille de page demandée.
+     * @param idOf l'accesseur de l'identifiant d'un élément.
+     * @return la réponse HTTP contenant la page.
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> items, int size, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, encode(idOf.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+
+    private static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+}
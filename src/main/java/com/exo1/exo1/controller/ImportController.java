@@ -0,0 +1,54 @@
+package com.exo1.exo1.controller;
+
+import com.exo1.exo1.dto.ImportReportDto;
+import com.exo1.exo1.service.DataFormat;
+import com.exo1.exo1.service.ImportService;
+import com.exo1.exo1.service.ImportTable;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+/**
+ * Contrôleur REST pour l'import en masse des projets, tâches, utilisateurs et de leurs associations.
+ */
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    /**
+     * Importe le corps de la requête (NDJSON ou CSV avec en-tête) dans une table.
+     * Le fichier est lu en flux et chargé par COPY, sans passer par JPA.
+     * Le corps ne doit pas être envoyé en application/x-www-form-urlencoded (il serait lu comme un formulaire).
+     *
+     * @param table la table cible : projet, task, users ou users_projet.
+     * @param format le format du corps : ndjson (par défaut) ou csv.
+     * @param request la requête HTTP dont le corps contient les lignes à importer.
+     * @return le rapport d'import (lignes importées, rejets, durée et débit).
+     */
+    @PostMapping(value = "/{table}", consumes = {"application/x-ndjson", "text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ImportReportDto> importData(@PathVariable String table,
+                                                      @RequestParam(defaultValue = "ndjson") String format,
+                                                      HttpServletRequest request) throws IOException {
+        ImportTable importTable;
+        DataFormat dataFormat;
+        try {
+            importTable = ImportTable.of(table);
+            dataFormat = DataFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import: " + table + " as " + format);
+        }
+        return ResponseEntity.ok(importService.importData(importTable, dataFormat, request.getInputStream()));
+    }
+}
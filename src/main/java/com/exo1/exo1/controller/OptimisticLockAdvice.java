@@ -0,0 +1,24 @@
+package com.exo1.exo1.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Écriture concurrente détectée par Hibernate ({@code @Version}) après la vérification de l'en-tête If-Match :
+ * 412 si le client avait posé une précondition, 409 sinon.
+ */
+@RestControllerAdvice
+public class OptimisticLockAdvice {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleConflict(OptimisticLockingFailureException e, HttpServletRequest request) {
+        // Pas de @RequestHeader dans un @ExceptionHandler : l'en-tête est lu sur la requête
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        return ProblemDetail.forStatusAndDetail(status, "The resource was modified concurrently");
+    }
+}
@@ -1,15 +1,20 @@
 package com.exo1.exo1.controller;
 
 import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.ProjetSearchResultDto;
+import com.exo1.exo1.service.EntityTags;
+import com.exo1.exo1.service.ExportService;
 import com.exo1.exo1.service.ProjetService;
-import com.exo1.exo1.service.ProjetTaskCountService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -20,12 +25,15 @@ import java.util.List;
 @AllArgsConstructor
 public class ProjetController {
 
+    // En deçà de 3 caractères, une recherche ne contient aucun trigramme complet et parcourt tout l'index
+    private static final int MIN_SEARCH_LENGTH = 3;
+
     @Autowired
     private ProjetService projetService;
-    private ProjetTaskCountService projetTaskCountService;
+    private ExportService exportService;
 
     /**
-     * Crée un nouveau projet et rafraîchit la vue matérialisée de comptage des tâches.
+     * Crée un nouveau projet. Son compteur de tâches est créé dans la même transaction.
      *
      * @param projetDto les informations du projet à créer.
      * @return la réponse contenant le projet nouvellement créé.
@@ -33,7 +41,6 @@ public class ProjetController {
     @PostMapping("/add")
     public ResponseEntity<ProjetDto> createProjet(@RequestBody ProjetDto projetDto) {
         ProjetDto savedProject = projetService.save(projetDto);
-        projetTaskCountService.refreshMaterializedView();
         return ResponseEntity.ok(savedProject);
     }
 
@@ -41,11 +48,12 @@ public class ProjetController {
      * Supprime un projet spécifique par son identifiant.
      *
      * @param id identifiant du projet à supprimer.
-     * @return une réponse sans contenu après suppression.
+     * @param ifMatch ETag attendu (If-Match), facultatif.
+     * @return une réponse sans contenu après suppression, ou 412 si le projet a changé depuis l'ETag fourni.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProjet(@PathVariable Long id) {
-        projetService.delete(id);
+    public ResponseEntity<Void> deleteProjet(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        projetService.delete(id, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
@@ -53,11 +61,12 @@ public class ProjetController {
      * Récupère les informations d'un projet spécifique par son identifiant.
      *
      * @param id l'ID du projet.
-     * @return réponse contenant les détails du projet.
+     * @param ifNoneMatch ETag détenu par le client (If-None-Match), facultatif.
+     * @return réponse contenant les détails du projet et son ETag, ou 304 si l'ETag est à jour.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProjetDto> getProjetById(@PathVariable Long id) {
-        return ResponseEntity.ok(projetService.findById(id));
+    public ResponseEntity<ProjetDto> getProjetById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.get(id, ifNoneMatch, projetService::etag, projetService::findById, EntityTags::of);
     }
 
     /**
@@ -83,16 +92,43 @@ public class ProjetController {
     }
 
     /**
-     * Obtenez une liste de projets paginée.
+     * Recherche des projets dont le nom contient le texte ou s'en approche, par pertinence décroissante.
      *
+     * @param q texte recherché, au moins 3 caractères.
      * @param page numéro de la page, par défaut 0.
+     * @param size nombre de résultats par page, par défaut 10.
+     * @return réponse contenant les projets trouvés et leur score, ou 400 si le texte est trop court ou si la page
+     * commence au-delà des {@value ProjetService#SEARCH_WINDOW} résultats qu'une recherche peut renvoyer.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProjetSearchResultDto>> searchProjets(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (q.strip().length() < MIN_SEARCH_LENGTH || (long) page * size >= ProjetService.SEARCH_WINDOW) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(projetService.search(q.strip(), PageRequest.of(page, size)));
+    }
+
+    /**
+     * Obtenez une liste de projets paginée.
+     * Si le paramètre after est présent, la pagination se fait par curseur et le curseur
+     * de la page suivante est renvoyé dans l'en-tête X-Next-Cursor.
+     *
+     * @param page numéro de la page, par défaut 0, ignoré en pagination par curseur.
      * @param size nombre d'éléments par page, par défaut 10.
+     * @param after curseur opaque de la page précédente (vide pour la première page).
      * @return réponse contenant la liste paginée des projets.
      */
     @GetMapping
     public ResponseEntity<List<ProjetDto>> getAllProjetsPaginated(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return CursorPagination.page(projetService.findAfter(CursorPagination.decode(after), size), size, ProjetDto::getId);
+        }
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(projetService.findAll(pageable));
     }
@@ -102,10 +138,23 @@ public class ProjetController {
      *
      * @param id l'ID du projet à mettre à jour.
      * @param projetDto nouvelles informations du projet.
-     * @return réponse contenant le projet mis à jour.
+     * @param ifMatch ETag attendu (If-Match), facultatif.
+     * @return réponse contenant le projet mis à jour et son ETag, ou 412 si le projet a changé.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<ProjetDto> updateProjet(@PathVariable Long id, @RequestBody ProjetDto projetDto) {
-        return ResponseEntity.ok(projetService.update(id, projetDto));
+    public ResponseEntity<ProjetDto> updateProjet(@PathVariable Long id, @RequestBody ProjetDto projetDto,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalRequests.tagged(projetService.update(id, projetDto, ifMatch), EntityTags::of);
+    }
+
+    /**
+     * Exporte tous les projets (sans leurs tâches) en flux continu, au format NDJSON ou CSV.
+     *
+     * @param format format d'export : ndjson (par défaut) ou csv.
+     * @param response réponse HTTP dans laquelle les projets sont écrits.
+     */
+    @GetMapping("/export")
+    public void exportProjets(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        StreamingExport.write(response, "projets", format, exportService::exportProjets);
     }
 }
@@ -0,0 +1,53 @@
+package com.exo1.exo1.controller;
+
+import com.exo1.exo1.service.DataFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Réponses des exports en flux ({@code ?format=ndjson|csv}).
+ * Le corps est écrit directement dans la réponse HTTP, sans être construit en mémoire.
+ */
+final class StreamingExport {
+
+    private StreamingExport() {
+    }
+
+    /**
+     * Export d'une table vers la réponse HTTP.
+     */
+    @FunctionalInterface
+    interface Exporter {
+        long export(DataFormat format, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Écrit un export dans la réponse, en pièce jointe nommée d'après la table.
+     *
+     * @param response la réponse HTTP.
+     * @param name le nom du fichier exporté, sans extension.
+     * @param format le format demandé (ndjson ou csv).
+     * @param exporter l'export à exécuter.
+     */
+    static void write(HttpServletResponse response, String name, String format, Exporter exporter) throws IOException {
+        DataFormat exportFormat = parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"");
+        exporter.export(exportFormat, response.getOutputStream());
+    }
+
+    private static DataFormat parse(String format) {
+        try {
+            return DataFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+    }
+}
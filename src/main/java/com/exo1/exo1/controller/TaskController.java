@@ -1,14 +1,22 @@
 package com.exo1.exo1.controller;
 
 import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.TaskStatusUpdateDto;
+import com.exo1.exo1.dto.TaskSuggestionDto;
+import com.exo1.exo1.service.EntityTags;
+import com.exo1.exo1.service.ExportService;
 import com.exo1.exo1.service.TaskService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur pour la gestion des tâches, offrant des opérations CRUD et une pagination.
@@ -17,9 +25,14 @@ import java.util.List;
 @RequestMapping("/tasks")
 public class TaskController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private ExportService exportService;
+
     /**
      * Crée une nouvelle tâche en utilisant les informations fournies.
      *
@@ -31,15 +44,27 @@ public class TaskController {
         return ResponseEntity.ok(taskService.save(taskDto));
     }
 
+    /**
+     * Crée un lot de tâches en une seule requête (insertions JDBC groupées).
+     *
+     * @param taskDtos La liste des tâches à créer.
+     * @return Une réponse contenant les tâches ajoutées.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskDto>> addTasks(@RequestBody List<TaskDto> taskDtos) {
+        return ResponseEntity.ok(taskService.saveAll(taskDtos));
+    }
+
     /**
      * Supprime une tâche spécifiée par son ID.
      *
      * @param id L'identifiant unique de la tâche à supprimer.
-     * @return Une réponse sans contenu indiquant le succès de la suppression.
+     * @param ifMatch L'ETag attendu (If-Match), facultatif.
+     * @return Une réponse sans contenu, ou 412 si la tâche a changé depuis l'ETag fourni.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> removeTask(@PathVariable Long id) {
-        taskService.delete(id);
+    public ResponseEntity<Void> removeTask(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.delete(id, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
@@ -48,24 +73,65 @@ public class TaskController {
      *
      * @param id L'identifiant unique de la tâche à modifier.
      * @param taskDto Les nouvelles informations de la tâche.
-     * @return Une réponse contenant l'objet TaskDto mis à jour.
+     * @param ifMatch L'ETag attendu (If-Match), facultatif.
+     * @return Une réponse contenant l'objet TaskDto mis à jour et son ETag, ou 412 si la tâche a changé.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<TaskDto> modifyTask(@PathVariable Long id, @RequestBody TaskDto taskDto) {
-        return ResponseEntity.ok(taskService.update(id, taskDto));
+    public ResponseEntity<TaskDto> modifyTask(@PathVariable Long id, @RequestBody TaskDto taskDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalRequests.tagged(taskService.update(id, taskDto, ifMatch), EntityTags::of);
+    }
+
+    /**
+     * Change le statut d'une tâche en une seule requête SQL.
+     *
+     * @param id L'identifiant unique de la tâche.
+     * @param taskDto Le nouveau statut ; les autres champs sont ignorés.
+     * @param ifMatch L'ETag attendu (If-Match), facultatif.
+     * @return La tâche modifiée et son ETag, 400 sans statut, ou 412 si la tâche a changé depuis l'ETag fourni.
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<TaskDto> changeTaskStatus(@PathVariable Long id, @RequestBody TaskDto taskDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (taskDto.getStatus() == null || taskDto.getStatus().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ConditionalRequests.tagged(taskService.updateStatus(id, taskDto.getStatus(), ifMatch), EntityTags::of);
+    }
+
+    /**
+     * Change en une seule requête SQL le statut de toutes les tâches vérifiant les critères fournis
+     * (projet, statut actuel, liste d'identifiants).
+     *
+     * @param update Le nouveau statut et au moins un critère.
+     * @return Le nombre de tâches modifiées, ou 400 sans statut ou sans critère.
+     */
+    @PatchMapping("/status")
+    public ResponseEntity<Map<String, Integer>> changeTaskStatuses(@RequestBody TaskStatusUpdateDto update) {
+        if (update.getStatus() == null || update.getStatus().isBlank() || !update.hasCriteria()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("updated", taskService.updateStatuses(update)));
     }
 
     /**
      * Récupère une liste paginée de tâches.
+     * Si le paramètre after est présent, la pagination se fait par curseur et le curseur
+     * de la page suivante est renvoyé dans l'en-tête X-Next-Cursor.
      *
-     * @param page Numéro de la page (défaut : 0).
+     * @param page Numéro de la page (défaut : 0), ignoré en pagination par curseur.
      * @param size Nombre de tâches par page (défaut : 10).
+     * @param after Curseur opaque de la page précédente (vide pour la première page).
      * @return Une liste paginée de TaskDto correspondant aux tâches.
      */
     @GetMapping
     public ResponseEntity<List<TaskDto>> listTasks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return CursorPagination.page(taskService.findAfter(CursorPagination.decode(after), size), size, TaskDto::getId);
+        }
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(taskService.findAll(pageable));
     }
@@ -74,11 +140,12 @@ public class TaskController {
      * Récupère une tâche par son identifiant.
      *
      * @param id L'identifiant unique de la tâche.
-     * @return Un objet TaskDto avec les détails de la tâche demandée.
+     * @param ifNoneMatch L'ETag détenu par le client (If-None-Match), facultatif.
+     * @return Un objet TaskDto avec les détails de la tâche demandée, ou 304 si l'ETag est à jour.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TaskDto> fetchTaskById(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.findById(id));
+    public ResponseEntity<TaskDto> fetchTaskById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.get(id, ifNoneMatch, taskService::etag, taskService::findById, EntityTags::of);
     }
 
     /**
@@ -91,4 +158,33 @@ public class TaskController {
     public ResponseEntity<List<TaskDto>> searchTasksByTitle(@PathVariable String title) {
         return ResponseEntity.ok(taskService.findByTitle(title));
     }
+
+    /**
+     * Propose les titres de tâches commençant par le texte saisi (autocomplétion).
+     *
+     * @param prefix Le début du titre, sans tenir compte de la casse.
+     * @param limit Le nombre maximal de titres proposés (défaut : 10, au plus 50).
+     * @return Les titres trouvés par ordre alphabétique avec leurs tâches, ou 400 si le préfixe est vide.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TaskSuggestionDto>> suggestTitles(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isBlank() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskService.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Exporte toutes les tâches en flux continu (NDJSON par défaut, ou CSV).
+     * La mémoire utilisée reste constante quel que soit le nombre de tâches.
+     *
+     * @param format Le format d'export : ndjson ou csv.
+     * @param response La réponse HTTP dans laquelle les tâches sont écrites.
+     */
+    @GetMapping("/export")
+    public void exportTasks(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        StreamingExport.write(response, "tasks", format, exportService::exportTasks);
+    }
 }
@@ -1,10 +1,12 @@
 package com.exo1.exo1.controller;
 
 import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.service.EntityTags;
 import com.exo1.exo1.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -35,11 +37,12 @@ public class UserController {
      * Supprime un utilisateur de la base de données en fonction de son ID.
      *
      * @param id L'identifiant unique de l'utilisateur à supprimer.
-     * @return une réponse sans contenu indiquant le succès de l'opération.
+     * @param ifMatch L'ETag attendu (If-Match), facultatif.
+     * @return une réponse sans contenu, ou 412 si l'utilisateur a changé depuis l'ETag fourni.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> removeUser(@PathVariable Long id) {
-        userService.delete(id);
+    public ResponseEntity<Void> removeUser(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.delete(id, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
@@ -48,24 +51,33 @@ public class UserController {
      *
      * @param id L'identifiant unique de l'utilisateur à modifier.
      * @param userDto Un objet UserDto contenant les nouvelles informations de l'utilisateur.
-     * @return une réponse contenant l'objet UserDto mis à jour.
+     * @param ifMatch L'ETag attendu (If-Match), facultatif.
+     * @return une réponse contenant l'objet UserDto mis à jour et son ETag, ou 412 si l'utilisateur a changé.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> modifyUser(@PathVariable Long id, @RequestBody UserDto userDto) {
-        return ResponseEntity.ok(userService.update(id, userDto));
+    public ResponseEntity<UserDto> modifyUser(@PathVariable Long id, @RequestBody UserDto userDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalRequests.tagged(userService.update(id, userDto, ifMatch), EntityTags::of);
     }
 
     /**
      * Récupère la liste des utilisateurs avec une pagination configurable.
+     * Si le paramètre after est présent, la pagination se fait par curseur et le curseur
+     * de la page suivante est renvoyé dans l'en-tête X-Next-Cursor.
      *
-     * @param page Numéro de la page de résultats (par défaut 0).
+     * @param page Numéro de la page de résultats (par défaut 0), ignoré en pagination par curseur.
      * @param size Nombre d'utilisateurs par page (par défaut 10).
+     * @param after Curseur opaque de la page précédente (vide pour la première page).
      * @return une liste d'objets UserDto correspondant aux utilisateurs de la page demandée.
      */
     @GetMapping
     public ResponseEntity<List<UserDto>> listUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return CursorPagination.page(userService.findAfter(CursorPagination.decode(after), size), size, UserDto::getId);
+        }
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(userService.findAll(pageable));
     }
@@ -74,10 +86,11 @@ public class UserController {
      * Récupère un utilisateur par son identifiant unique.
      *
      * @param id L'identifiant unique de l'utilisateur.
-     * @return un objet UserDto contenant les informations de l'utilisateur, s'il est trouvé.
+     * @param ifNoneMatch L'ETag détenu par le client (If-None-Match), facultatif.
+     * @return un objet UserDto contenant les informations de l'utilisateur, s'il est trouvé, ou 304 si l'ETag est à jour.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> fetchUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.findById(id));
+    public ResponseEntity<UserDto> fetchUserById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.get(id, ifNoneMatch, userService::etag, userService::findById, EntityTags::of);
     }
 }
@@ -0,0 +1,30 @@
+package com.exo1.exo1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReportDto {
+
+    private String table;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long durationMs;
+    private double rowsPerSecond;
+    // Les 100 premiers rejets (numéro de ligne dans le fichier et motif)
+    private List<Reject> rejects;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Reject {
+        private long line;
+        private String reason;
+    }
+}
@@ -16,4 +16,6 @@ public class ProjetDto {
     private String name;
     private String description;
     private List<TaskDto> tasks;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,17 @@
+package com.exo1.exo1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProjetSearchResultDto {
+
+    private Long id;
+    private String name;
+    private String description;
+    // Similarité trigramme entre la recherche et le mot le plus proche du nom (0 à 1)
+    private double score;
+}
@@ -13,4 +13,6 @@ public class TaskDto {
     private Long id;
     private String title;
     private String status;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package com.exo1.exo1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskStatusUpdateDto {
+    // Nouveau statut
+    private String status;
+    // Critères de sélection des tâches, cumulés ; un critère absent est ignoré, au moins un doit être renseigné
+    private Long projetId;
+    private String currentStatus;
+    private List<Long> ids;
+
+    public boolean hasCriteria() {
+        return projetId != null || currentStatus != null || ids != null;
+    }
+}
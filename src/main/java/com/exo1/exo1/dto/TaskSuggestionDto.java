@@ -0,0 +1,18 @@
+package com.exo1.exo1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskSuggestionDto {
+
+    private String title;
+    // Nombre de tâches portant ce titre ; taskIds n'en liste que les premières
+    private int count;
+    private List<Long> taskIds;
+}
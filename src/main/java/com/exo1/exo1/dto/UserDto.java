@@ -16,4 +16,6 @@ public class UserDto {
     private String name;
     private String email;
     private List<ProjetDto> projets;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
@@ -5,11 +5,16 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projet")
 @Table(name = "projet", indexes = @Index(name = "idx_projet_name", columnList = "name"))
 @Getter
 @Setter
@@ -17,7 +22,8 @@ import java.util.Set;
 @NoArgsConstructor
 public class Projet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projet_seq")
+    @SequenceGenerator(name = "projet_seq", sequenceName = "projet_projet_id_seq", allocationSize = 50)
     @Column(name = "projet_id")
     private Long id;
 
@@ -28,6 +34,13 @@ public class Projet {
     @JoinTable(name = "users_projet", joinColumns = @JoinColumn(name = "projet_id"), inverseJoinColumns = @JoinColumn(name = "users_id"))
     private Set<User> users = new HashSet<>(); // Initialisation de users
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projetTasks")
     @OneToMany(mappedBy = "projet", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private Set<Task> tasks = new HashSet<>(); // Initialisation de tasks
+
+    // Verrouillage optimiste ; sert aussi à calculer les ETag (EntityTags)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
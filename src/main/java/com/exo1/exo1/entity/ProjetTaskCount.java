@@ -18,7 +18,8 @@ import lombok.Setter;
 @Table(name = "projet_task_count")
 public class ProjetTaskCount {
     @Id
-    private Long projet_id;
+    @Column(name = "projet_id")
+    private Long projetId;
     private String name;
     @Column(name = "task_count")
     private Long taskCount;
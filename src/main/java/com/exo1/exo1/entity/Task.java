@@ -5,16 +5,22 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "task", indexes = @Index(name = "idx_task_title", columnList = "title"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
+@Table(name = "task", indexes = {@Index(name = "idx_task_title", columnList = "title"), @Index(name = "idx_task_projet", columnList = "projet_id")})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_task_id_seq", allocationSize = 50)
     @Column(name = "task_id")
     private Long id;
 
@@ -28,4 +34,10 @@ public class Task {
     @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "users_id")
     private User user;
+
+    // Verrouillage optimiste ; sert aussi à calculer les ETag (EntityTags)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
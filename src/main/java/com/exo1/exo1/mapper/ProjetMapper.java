@@ -1,15 +1,25 @@
 package com.exo1.exo1.mapper;
 
 import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.ProjetSearchResultDto;
 import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.repository.ProjetRepository;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring", uses = {TaskMapper.class})
 public interface ProjetMapper {
     ProjetDto toDto(Projet projet);
+    @Named("withoutTasks")
+    @Mapping(target = "tasks", ignore = true)
+    ProjetDto toDtoWithoutTasks(Projet projet);
+    @Mapping(target = "version", ignore = true)
     Projet toEntity(ProjetDto projetDto);
     List<ProjetDto> toDtos(List<Projet> projets);
     List<Projet> toEntities(List<ProjetDto> projetDtos);
+    ProjetSearchResultDto toSearchResult(ProjetRepository.SearchHit hit);
+    List<ProjetSearchResultDto> toSearchResults(List<ProjetRepository.SearchHit> hits);
 }
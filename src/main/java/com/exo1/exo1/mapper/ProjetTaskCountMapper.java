@@ -3,13 +3,16 @@ package com.exo1.exo1.mapper;
 import com.exo1.exo1.dto.ProjetTaskCountDto;
 import com.exo1.exo1.entity.ProjetTaskCount;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface ProjetTaskCountMapper {
 
+    @Mapping(source = "projetId", target = "project_id")
     ProjetTaskCountDto toDto(ProjetTaskCount projetTaskCount);
+    @Mapping(source = "project_id", target = "projetId")
     ProjetTaskCount toEntity(ProjetTaskCountDto projetTaskCountDto);
     List<ProjetTaskCountDto> toDtos(List<ProjetTaskCount> projetTaskCountList);
     List<ProjetTaskCount> toEntities(List<ProjetTaskCountDto> projetTaskCountDtoList);
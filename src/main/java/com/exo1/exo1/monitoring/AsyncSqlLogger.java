@@ -0,0 +1,255 @@
+package com.exo1.exo1.monitoring;
+
+import com.p6spy.engine.logging.Category;
+import com.p6spy.engine.spy.P6SpyOptions;
+import com.p6spy.engine.spy.appender.MessageFormattingStrategy;
+import com.p6spy.engine.spy.appender.P6Logger;
+import com.p6spy.engine.spy.option.SpyDotProperties;
+import com.p6spy.engine.spy.option.SystemProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender p6spy asynchrone ({@code appender} de {@code spy.properties}) : le thread de la requête ne fait
+ * qu'échantillonner l'instruction et la déposer dans un anneau sans verrou ({@link SqlLogRingBuffer}) ;
+ * un thread d'écriture la met en forme ({@code logMessageFormat}) et l'écrit dans {@code logfile} par lots.
+ * Si l'anneau est plein, l'instruction n'est pas journalisée et le compteur des pertes est incrémenté :
+ * la journalisation ne ralentit jamais les requêtes.
+ * <p>
+ * Options lues dans {@code spy.properties} (ou {@code -Dp6spy.config.<option>}) :
+ * {@code asyncBufferSize} (8192 instructions), {@code asyncBatchSize} (512), {@code asyncFlushInterval}
+ * (100 ms), {@code sampleRate} (une instruction sur N, 1 = toutes, 0 = aucune) et {@code slowThreshold}
+ * (durée en ms à partir de laquelle une instruction est toujours journalisée, 0 = désactivé).
+ */
+@Slf4j
+public class AsyncSqlLogger implements P6Logger, Closeable {
+
+    private static final LongAdder WRITTEN = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+    private static volatile AsyncSqlLogger current;
+
+    private final Writer out;
+    private final MessageFormattingStrategy strategy;
+    private final Settings settings;
+    private final SqlLogRingBuffer<Event> buffer;
+    private final StringBuilder batch = new StringBuilder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * Appender instancié par p6spy, configuré par ses options.
+     */
+    public AsyncSqlLogger() {
+        this(open(P6SpyOptions.getActiveInstance().getLogfile(), P6SpyOptions.getActiveInstance().getAppend()),
+                P6SpyOptions.getActiveInstance().getLogMessageFormatInstance(), Settings.from(options()), true);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "sql-log-shutdown"));
+        current = this;
+    }
+
+    AsyncSqlLogger(Writer out, MessageFormattingStrategy strategy, Settings settings, boolean start) {
+        this.out = out;
+        this.strategy = strategy;
+        this.settings = settings;
+        this.buffer = new SqlLogRingBuffer<>(settings.bufferSize());
+        this.writer = new Thread(this::run, "sql-log-writer");
+        writer.setDaemon(true);
+        if (start) {
+            writer.start();
+        }
+    }
+
+    /**
+     * @return le nombre d'instructions écrites depuis le démarrage.
+     */
+    public static long written() {
+        return WRITTEN.sum();
+    }
+
+    /**
+     * @return le nombre d'instructions perdues, l'anneau étant plein ou le fichier inaccessible.
+     */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * @return le nombre d'instructions écartées par l'échantillonnage.
+     */
+    public static long sampledOut() {
+        return SAMPLED_OUT.sum();
+    }
+
+    /**
+     * @return le nombre d'instructions en attente d'écriture, 0 si p6spy n'utilise pas cet appender.
+     */
+    public static int pending() {
+        AsyncSqlLogger logger = current;
+        return logger == null ? 0 : logger.buffer.size();
+    }
+
+    @Override
+    public void logSQL(int connectionId, String now, long elapsed, Category category, String prepared, String sql,
+                       String url) {
+        if (!sampled(elapsed)) {
+            SAMPLED_OUT.increment();
+            return;
+        }
+        enqueue(new Event(connectionId, now, elapsed, category, prepared, sql, url, null));
+    }
+
+    @Override
+    public void logException(Exception e) {
+        StringWriter stackTrace = new StringWriter();
+        e.printStackTrace(new PrintWriter(stackTrace));
+        logText(stackTrace.toString());
+    }
+
+    @Override
+    public void logText(String text) {
+        enqueue(new Event(0, null, 0, null, null, null, null, text));
+    }
+
+    @Override
+    public boolean isCategoryEnabled(Category category) {
+        // Les catégories exclues (excludecategories) sont filtrées par p6spy
+        return true;
+    }
+
+    /**
+     * Arrête le thread d'écriture après avoir écrit les instructions en attente.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            while (flush() > 0) {
+                // jusqu'à ce que l'anneau soit vide
+            }
+        }
+    }
+
+    /**
+     * Écrit un lot d'instructions en attente. Appelé par le seul thread d'écriture (ou après son arrêt).
+     *
+     * @return le nombre d'instructions retirées de l'anneau.
+     */
+    int flush() {
+        int drained = buffer.drain(this::format, settings.batchSize());
+        if (drained > 0) {
+            try {
+                out.write(batch.toString());
+                out.flush();
+                WRITTEN.add(drained);
+            } catch (IOException e) {
+                DROPPED.add(drained);
+                log.warn("Écriture du journal SQL impossible : {}", e.getMessage());
+            }
+            batch.setLength(0);
+        }
+        return drained;
+    }
+
+    private boolean sampled(long elapsedMillis) {
+        if (settings.slowThresholdMillis() > 0 && elapsedMillis >= settings.slowThresholdMillis()) {
+            return true;
+        }
+        int rate = settings.sampleRate();
+        return rate == 1 || rate > 1 && ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    private void enqueue(Event event) {
+        if (!buffer.offer(event)) {
+            DROPPED.increment();
+        }
+    }
+
+    private void format(Event event) {
+        if (event.text() != null) {
+            batch.append(event.text());
+        } else {
+            batch.append(strategy.formatMessage(event.connectionId(), event.now(), event.elapsed(),
+                    event.category().toString(), event.prepared(), event.sql(), event.url()));
+        }
+        batch.append(System.lineSeparator());
+    }
+
+    private void run() {
+        while (running) {
+            if (flush() < settings.batchSize()) {
+                LockSupport.parkNanos(settings.flushInterval().toNanos());
+            }
+        }
+        while (flush() > 0) {
+            // instructions déposées avant l'arrêt
+        }
+    }
+
+    private static Writer open(String logfile, boolean append) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(logfile, append), StandardCharsets.UTF_8),
+                    1 << 16);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open SQL log file " + logfile, e);
+        }
+    }
+
+    private static Map<String, String> options() {
+        Map<String, String> options = new HashMap<>();
+        try {
+            options.putAll(new SpyDotProperties().getOptions());
+        } catch (IOException e) {
+            log.warn("Lecture de spy.properties impossible : {}", e.getMessage());
+        }
+        options.putAll(new SystemProperties().getOptions());
+        return options;
+    }
+
+    private record Event(int connectionId, String now, long elapsed, Category category, String prepared, String sql,
+                         String url, String text) {
+    }
+
+    /**
+     * Réglages de l'appender.
+     *
+     * @param bufferSize la capacité de l'anneau.
+     * @param batchSize le nombre maximal d'instructions écrites à la fois.
+     * @param flushInterval l'attente du thread d'écriture quand l'anneau est vide.
+     * @param sampleRate une instruction sur N journalisée (1 = toutes, 0 = aucune sous le seuil).
+     * @param slowThresholdMillis la durée à partir de laquelle une instruction est toujours journalisée (0 = désactivé).
+     */
+    record Settings(int bufferSize, int batchSize, Duration flushInterval, int sampleRate, long slowThresholdMillis) {
+
+        static Settings from(Map<String, String> options) {
+            return new Settings(
+                    Integer.parseInt(options.getOrDefault("asyncBufferSize", "8192")),
+                    Integer.parseInt(options.getOrDefault("asyncBatchSize", "512")),
+                    Duration.ofMillis(Long.parseLong(options.getOrDefault("asyncFlushInterval", "100"))),
+                    Integer.parseInt(options.getOrDefault("sampleRate", "1")),
+                    Long.parseLong(options.getOrDefault("slowThreshold", "0")));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.exo1.exo1.monitoring;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Requêtes en cours par méthode de contrôleur ({@code http.server.in_flight{handler}} : nombre de requêtes
+ * actives et ancienneté de la plus ancienne). {@code http.server.requests.active}, créé au début de la requête,
+ * ne connaît pas encore l'endpoint ({@code uri="UNKNOWN"}). Une requête asynchrone (export en flux) reste comptée
+ * jusqu'à la fin de son traitement asynchrone.
+ */
+@Component
+@RequiredArgsConstructor
+public class InFlightRequests implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final String SAMPLE = InFlightRequests.class.getName() + ".sample";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Un dispatch asynchrone repasse ici : la requête est déjà comptée
+        if (handler instanceof HandlerMethod method && request.getAttribute(SAMPLE) == null) {
+            request.setAttribute(SAMPLE, LongTaskTimer.builder("http.server.in_flight")
+                    .description("Requêtes HTTP en cours")
+                    .tag("handler", SqlStatsFilter.handlerName(method))
+                    .register(meterRegistry)
+                    .start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SAMPLE) instanceof LongTaskTimer.Sample sample) {
+            sample.stop();
+            request.removeAttribute(SAMPLE);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.exo1.exo1.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps des méthodes publiques des services ({@code @Service} de {@code com.exo1.exo1.service}), publié dans
+ * {@code service.method} par classe et méthode. Le tag {@code cache} sépare, pour les méthodes {@code @Cacheable},
+ * les appels servis par le cache ({@code hit}) de ceux qui ont exécuté la méthode ({@code miss}) ; {@code none}
+ * pour les autres. Cet aspect entoure le cache et les transactions ; {@link Execution}, placé sous eux,
+ * signale que la méthode elle-même a été exécutée.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    static final String SERVICES = "execution(public * com.exo1.exo1.service..*(..))"
+            + " && @within(org.springframework.stereotype.Service)";
+
+    private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    @Around(SERVICES)
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Invocation parent = CURRENT.get();
+        Invocation invocation = new Invocation();
+        CURRENT.set(invocation);
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+            MethodTimers methodTimers = timers.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    method -> new MethodTimers(joinPoint.getTarget().getClass(), method));
+            methodTimers.timer(invocation.executed, failure).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Appel de service en cours sur le thread : {@code executed} passe à vrai quand la méthode elle-même s'exécute.
+     */
+    private static final class Invocation {
+        private boolean executed;
+    }
+
+    /**
+     * Minuteries d'une méthode, une par issue de cache ; celles des exceptions sont créées à la demande.
+     */
+    private final class MethodTimers {
+
+        private final String className;
+        private final String methodName;
+        private final boolean cacheable;
+        private final Timer hit;
+        private final Timer miss;
+
+        private MethodTimers(Class<?> targetClass, Method method) {
+            className = targetClass.getSimpleName();
+            methodName = method.getName();
+            cacheable = AnnotatedElementUtils.hasAnnotation(method, Cacheable.class);
+            hit = cacheable ? builder("hit", "none").register(meterRegistry) : null;
+            miss = builder(cacheable ? "miss" : "none", "none").register(meterRegistry);
+        }
+
+        private Timer timer(boolean executed, Throwable failure) {
+            if (failure != null) {
+                return builder(cacheable ? "miss" : "none", failure.getClass().getSimpleName()).register(meterRegistry);
+            }
+            return cacheable && !executed ? hit : miss;
+        }
+
+        private Timer.Builder builder(String cache, String exception) {
+            return Timer.builder("service.method")
+                    .description("Temps des méthodes de service")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("cache", cache)
+                    .tag("exception", exception);
+        }
+    }
+
+    /**
+     * Marque l'appel de service en cours comme exécuté, une fois passés le cache et la transaction.
+     */
+    @Aspect
+    @Component
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    static class Execution {
+
+        @Before(SERVICES)
+        public void executed() {
+            Invocation invocation = CURRENT.get();
+            if (invocation != null) {
+                invocation.executed = true;
+            }
+        }
+    }
+}
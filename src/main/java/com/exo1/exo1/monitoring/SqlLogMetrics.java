@@ -0,0 +1,27 @@
+package com.exo1.exo1.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publie l'activité du journal SQL asynchrone ({@link AsyncSqlLogger}) : {@code sql.log.statements}
+ * par issue (écrite, perdue, écartée par l'échantillonnage) et {@code sql.log.pending}.
+ */
+@Component
+public class SqlLogMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sql.log.statements", AsyncSqlLogger.class, c -> AsyncSqlLogger.written())
+                .description("Instructions du journal SQL, par issue").tag("outcome", "written").register(registry);
+        FunctionCounter.builder("sql.log.statements", AsyncSqlLogger.class, c -> AsyncSqlLogger.dropped())
+                .description("Instructions du journal SQL, par issue").tag("outcome", "dropped").register(registry);
+        FunctionCounter.builder("sql.log.statements", AsyncSqlLogger.class, c -> AsyncSqlLogger.sampledOut())
+                .description("Instructions du journal SQL, par issue").tag("outcome", "sampled_out").register(registry);
+        Gauge.builder("sql.log.pending", AsyncSqlLogger.class, c -> AsyncSqlLogger.pending())
+                .description("Instructions en attente d'écriture").register(registry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.exo1.exo1.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * File bornée sans verrou, à plusieurs producteurs et un seul consommateur (anneau de D. Vyukov) :
+ * chaque case porte un numéro de séquence qui indique si elle est libre pour le producteur du tour courant
+ * ou remplie pour le consommateur. Un producteur réserve sa case par un seul compare-and-set et n'attend jamais :
+ * si l'anneau est plein, {@link #offer} échoue immédiatement.
+ *
+ * @param <T> le type des éléments.
+ */
+class SqlLogRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Lu et écrit par le seul consommateur ; volatile pour size()
+    private volatile long head;
+
+    /**
+     * @param capacity le nombre minimal d'éléments, arrondi à la puissance de deux supérieure.
+     */
+    SqlLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        elements = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Ajoute un élément sans attendre.
+     *
+     * @param element l'élément à ajouter.
+     * @return false si l'anneau est plein.
+     */
+    boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // available > 0 : un autre producteur a pris cette position, réessayer avec la suivante
+        }
+    }
+
+    /**
+     * Retire au plus {@code max} éléments, dans l'ordre d'ajout. À n'appeler que depuis le thread consommateur.
+     *
+     * @param consumer reçoit chaque élément retiré.
+     * @param max le nombre maximal d'éléments à retirer.
+     * @return le nombre d'éléments retirés.
+     */
+    int drain(Consumer<? super T> consumer, int max) {
+        int drained = 0;
+        long position = head;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            T element = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+            consumer.accept(element);
+        }
+        head = position;
+        return drained;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return le nombre approximatif d'éléments en attente.
+     */
+    int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, capacity()));
+    }
+}
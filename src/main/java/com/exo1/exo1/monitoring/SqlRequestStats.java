@@ -0,0 +1,125 @@
+package com.exo1.exo1.monitoring;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statistiques SQL de la requête HTTP en cours : nombre d'instructions, temps JDBC cumulé,
+ * lignes lues, nombre d'exécutions par forme d'instruction (SQL sans valeurs) et temps de détention
+ * des connexions (de leur obtention à leur restitution au pool).
+ * Rattachées au thread de la requête ; les instructions exécutées hors requête HTTP ne sont pas comptées.
+ */
+public class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statements;
+    private long jdbcNanos;
+    private long rows;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int connections;
+    private long connectionNanos;
+    // Heure d'obtention des connexions pas encore rendues, par connexion
+    private final Map<Object, Long> openConnections = new IdentityHashMap<>();
+
+    static SqlRequestStats start() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return les statistiques de la requête en cours, ou null hors requête HTTP.
+     */
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        if (sql != null) {
+            shapes.merge(shape(sql), 1, Integer::sum);
+        }
+    }
+
+    void recordFetch(long nanos, boolean row) {
+        jdbcNanos += nanos;
+        if (row) {
+            rows++;
+        }
+    }
+
+    void connectionAcquired(Object connection, long now) {
+        connections++;
+        openConnections.put(connection, now);
+    }
+
+    void connectionReleased(Object connection, long now) {
+        Long acquiredAt = openConnections.remove(connection);
+        if (acquiredAt != null) {
+            connectionNanos += now - acquiredAt;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return le temps cumulé pendant lequel la requête a détenu une connexion, celles pas encore rendues
+     * comptées jusqu'à maintenant.
+     */
+    public long getConnectionNanos() {
+        long now = System.nanoTime();
+        return connectionNanos + openConnections.values().stream().mapToLong(acquiredAt -> now - acquiredAt).sum();
+    }
+
+    /**
+     * Formes d'instruction exécutées au moins {@code threshold} fois dans la requête : N+1 suspectés
+     * (une requête par élément d'une liste au lieu d'une seule requête groupée).
+     *
+     * @param threshold le nombre d'exécutions à partir duquel une forme est suspecte.
+     * @return le nombre d'exécutions par forme suspecte, de la plus fréquente à la moins fréquente.
+     */
+    public Map<String, Integer> suspectedNPlusOne(int threshold) {
+        Map<String, Integer> suspected = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> suspected.put(e.getKey(), e.getValue()));
+        return suspected;
+    }
+
+    /**
+     * Forme d'une instruction : les valeurs littérales sont remplacées par {@code ?} et les espaces normalisés,
+     * pour que deux exécutions ne différant que par leurs paramètres aient la même forme.
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,50 @@
+package com.exo1.exo1.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * Écouteur p6spy : reporte chaque instruction exécutée, chaque ligne lue et chaque obtention ou restitution
+ * de connexion dans les statistiques de la requête HTTP en cours ({@link SqlRequestStats}).
+ */
+@Component
+public class SqlStatementListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null && e == null) {
+            stats.connectionAcquired(connectionInformation, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onAfterConnectionClose(ConnectionInformation connectionInformation, SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.connectionReleased(connectionInformation, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordStatement(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext,
+                                     SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordFetch(timeElapsedNanos, hasNext);
+        }
+    }
+}
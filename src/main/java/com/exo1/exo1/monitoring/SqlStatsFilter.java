@@ -0,0 +1,72 @@
+package com.exo1.exo1.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compte les instructions SQL, le temps JDBC, les lignes lues et le temps de détention des connexions
+ * de chaque requête HTTP, les publie par méthode de contrôleur (métriques {@code sql.request.*})
+ * et signale les N+1 suspectés.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatsProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlRequestStats.end();
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+                record(handlerName(handler), stats);
+            }
+        }
+    }
+
+    static String handlerName(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+
+    private void record(String handler, SqlRequestStats stats) {
+        DistributionSummary.builder("sql.request.statements").baseUnit("statements").tag("handler", handler)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("sql.request.rows").baseUnit("rows").tag("handler", handler)
+                .register(meterRegistry).record(stats.getRows());
+        Timer.builder("sql.request.time").tag("handler", handler)
+                .register(meterRegistry).record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("sql.request.connections").baseUnit("connections").tag("handler", handler)
+                .register(meterRegistry).record(stats.getConnections());
+        Timer.builder("sql.request.connection.time").description("Temps de détention des connexions JDBC")
+                .tag("handler", handler).register(meterRegistry).record(stats.getConnectionNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> suspected = stats.suspectedNPlusOne(properties.getRepeatedStatementThreshold());
+        if (!suspected.isEmpty()) {
+            Counter.builder("sql.request.n_plus_one").description("Requêtes HTTP avec un N+1 suspecté")
+                    .tag("handler", handler).register(meterRegistry).increment();
+            suspected.forEach((shape, count) -> log.warn("N+1 suspecté dans {} : {} exécutions de {}", handler, count, shape));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.exo1.exo1.monitoring;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * En mode débogage ({@code app.sql-stats.debug-headers=true}), ajoute aux réponses les statistiques SQL
+ * de la requête : X-SQL-Statements, X-SQL-Time-Ms, X-SQL-Rows et X-SQL-N-Plus-One (forme la plus répétée).
+ * Les en-têtes sont posés juste avant l'écriture du corps : les chargements paresseux déclenchés
+ * pendant la sérialisation ne sont pas comptés.
+ */
+@RestControllerAdvice
+@AllArgsConstructor
+@ConditionalOnProperty(name = "app.sql-stats.debug-headers", havingValue = "true")
+public class SqlStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final int MAX_SHAPE_LENGTH = 200;
+
+    private final SqlStatsProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-SQL-Statements", Integer.toString(stats.getStatements()));
+            headers.set("X-SQL-Time-Ms", String.format(Locale.ROOT, "%.3f", stats.getJdbcNanos() / 1_000_000d));
+            headers.set("X-SQL-Rows", Long.toString(stats.getRows()));
+            Map<String, Integer> suspected = stats.suspectedNPlusOne(properties.getRepeatedStatementThreshold());
+            suspected.entrySet().stream().findFirst().ifPresent(e -> headers.set("X-SQL-N-Plus-One",
+                    e.getValue() + "x " + e.getKey().substring(0, Math.min(MAX_SHAPE_LENGTH, e.getKey().length()))));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,13 @@
+package com.exo1.exo1.monitoring;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sql-stats")
+public class SqlStatsProperties {
+    // Nombre d'exécutions d'une même forme d'instruction, dans une requête, à partir duquel un N+1 est signalé
+    private int repeatedStatementThreshold = 5;
+}
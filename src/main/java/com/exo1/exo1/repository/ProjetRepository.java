@@ -1,18 +1,81 @@
 package com.exo1.exo1.repository;
 
 import com.exo1.exo1.entity.Projet;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ProjetRepository extends JpaRepository<Projet, Long> {
 
-    //Test Index (inutile)
+    //Test Index (inutile) ; les tâches sérialisées sont chargées dans la même requête
+    @EntityGraph(attributePaths = "tasks")
     List<Projet> findByName(String name);
 
     //Test requete N+1
     @Query("SELECT distinct p from Projet p join fetch Task where p.name like %:name% ")
     List<Projet> findByTest(String name);
 
+    //Pagination en deux temps : la page d'identifiants (LIMIT/OFFSET en base)...
+    @Query("SELECT p.id FROM Projet p ORDER BY p.id")
+    List<Long> findPageIds(Pageable pageable);
+
+    //...puis les projets de la page avec leurs tâches en une seule requête
+    @Query("SELECT DISTINCT p FROM Projet p LEFT JOIN FETCH p.tasks WHERE p.id IN :ids")
+    List<Projet> findAllWithTasksByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Pagination par curseur : WHERE projet_id > ? ORDER BY projet_id LIMIT ?
+    @Query("SELECT p.id FROM Projet p WHERE p.id > :after ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    //ETag : versions du projet et de ses tâches, sans charger les entités
+    @Query("SELECT p.id AS projetId, p.version AS projetVersion, t.id AS taskId, t.version AS taskVersion"
+            + " FROM Projet p LEFT JOIN p.tasks t WHERE p.id = :id")
+    List<GraphVersion> findGraphVersions(@Param("id") Long id);
+
+    interface GraphVersion {
+        Long getProjetId();
+        Long getProjetVersion();
+        Long getTaskId();
+        Long getTaskVersion();
+    }
+
+    //Recherche par fragment (ILIKE) ou approchée (<%, similarité de mot), servie par l'index GIN trigramme
+    //idx_projet_name_trgm (projet_search.sql). Seuls :candidates projets de chaque sorte sont classés,
+    //ce qui borne le coût des recherches très répandues : les fragments exacts d'abord, puis par similarité
+    @Query(value = """
+            WITH exact AS (SELECT projet_id FROM projet WHERE name ILIKE :pattern ESCAPE '\\' LIMIT :candidates),
+                 fuzzy AS (SELECT projet_id FROM projet WHERE :query <% name LIMIT :candidates)
+            SELECT p.projet_id AS id, p.name AS name, p.description AS description,
+                   CAST(word_similarity(:query, p.name) AS double precision) AS score
+            FROM projet p
+            WHERE p.projet_id IN (SELECT projet_id FROM exact UNION SELECT projet_id FROM fuzzy)
+            ORDER BY p.name ILIKE :pattern ESCAPE '\\' DESC, score DESC, similarity(:query, p.name) DESC, p.projet_id
+            """, nativeQuery = true)
+    List<SearchHit> search(@Param("query") String query, @Param("pattern") String pattern,
+                           @Param("candidates") int candidates, Pageable pageable);
+
+    interface SearchHit {
+        Long getId();
+        String getName();
+        String getDescription();
+        Double getScore();
+    }
+
+    //Export : curseur côté serveur, lu par blocs de 1000 lignes (à consommer dans une transaction)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Projet p ORDER BY p.id")
+    Stream<Projet> streamAll();
+
 }
@@ -1,10 +1,74 @@
 package com.exo1.exo1.repository;
 
 import com.exo1.exo1.entity.Task;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByTitle(String title);
+
+    //ETag : version seule, sans charger la tâche
+    @Query("SELECT t.version FROM Task t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    //Changement de statut en une instruction, sans charger la tâche ni la fusionner ; la version est incrémentée
+    //comme par Hibernate (ETag, verrouillage optimiste), vérifiée si elle est fournie (If-Match),
+    //et la ligne modifiée renvoyée pour mettre à jour les caches
+    @Query(value = """
+            UPDATE task SET status = :status, version = version + 1
+            WHERE task_id = :id AND (CAST(:version AS bigint) IS NULL OR version = :version)
+            RETURNING task_id AS "id", title AS "title", status AS "status", version AS "version", projet_id AS "projetId"
+            """, nativeQuery = true)
+    List<StatusChange> updateStatus(@Param("id") Long id, @Param("status") String status,
+                                    @Param("version") Long expectedVersion);
+
+    //Changement de statut en masse : toutes les tâches vérifiant les critères renseignés (projet, statut actuel,
+    //identifiants), en une instruction ensembliste ; un critère null est ignoré
+    @Query(value = """
+            UPDATE task SET status = :status, version = version + 1
+            WHERE (CAST(:projetId AS bigint) IS NULL OR projet_id = :projetId)
+              AND (CAST(:currentStatus AS varchar) IS NULL OR status = :currentStatus)
+              AND (CAST(:ids AS bigint[]) IS NULL OR task_id = ANY(CAST(:ids AS bigint[])))
+              AND status IS DISTINCT FROM :status
+            RETURNING task_id AS "id", title AS "title", status AS "status", version AS "version", projet_id AS "projetId"
+            """, nativeQuery = true)
+    List<StatusChange> updateStatuses(@Param("status") String status, @Param("projetId") Long projetId,
+                                      @Param("currentStatus") String currentStatus, @Param("ids") Long[] ids);
+
+    interface StatusChange {
+        Long getId();
+        String getTitle();
+        String getStatus();
+        Long getVersion();
+        Long getProjetId();
+    }
+
+    //Pagination par curseur : WHERE task_id > ? ORDER BY task_id LIMIT ?
+    List<Task> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Export : curseur côté serveur, lu par blocs de 1000 lignes (à consommer dans une transaction)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM Task t ORDER BY t.id")
+    Stream<Task> streamAll();
+
+    //Chargement de l'index des titres : identifiant et titre seuls, lus par blocs de 10000 lignes
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT t.id AS id, t.title AS title FROM Task t WHERE t.title IS NOT NULL")
+    Stream<TaskTitle> streamTitles();
+
+    interface TaskTitle {
+        Long getId();
+        String getTitle();
+    }
 }
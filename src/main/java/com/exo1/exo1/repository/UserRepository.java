@@ -1,15 +1,47 @@
 package com.exo1.exo1.repository;
 
 import com.exo1.exo1.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.awt.print.Pageable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    @Query("SELECT u FROM User u LEFT JOIN FETCH u.task WHERE u.id = :id")
-    Optional<User> findByIdWithTask(@Param("id") Long id);
+    //Pagination en deux temps : la page d'identifiants (LIMIT/OFFSET en base)...
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findPageIds(Pageable pageable);
+
+    //...puis le graphe sérialisé (tâche, projets et leurs tâches) en une seule requête
+    @EntityGraph(attributePaths = {"task", "projets", "projets.tasks"})
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findAllWithProjetsByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Mise à jour : l'utilisateur et ses projets en une requête
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.projets WHERE u.id = :id")
+    Optional<User> findByIdWithProjets(@Param("id") Long id);
+
+    //ETag : versions de l'utilisateur, de ses projets et de leurs tâches, sans charger les entités
+    @Query("SELECT u.id AS userId, u.version AS userVersion, p.id AS projetId, p.version AS projetVersion,"
+            + " t.id AS taskId, t.version AS taskVersion"
+            + " FROM User u LEFT JOIN u.projets p LEFT JOIN p.tasks t WHERE u.id = :id")
+    List<GraphVersion> findGraphVersions(@Param("id") Long id);
+
+    interface GraphVersion extends ProjetRepository.GraphVersion {
+        Long getUserId();
+        Long getUserVersion();
+    }
+
+    //Utilisateurs liés à des projets : leur représentation inclut ces projets et leurs tâches
+    @Query("SELECT DISTINCT u.id FROM User u JOIN u.projets p WHERE p.id IN :projetIds")
+    List<Long> findIdsByProjetIdIn(@Param("projetIds") Collection<Long> projetIds);
+
+    //Pagination par curseur : WHERE users_id > ? ORDER BY users_id LIMIT ?
+    @Query("SELECT u.id FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
 }
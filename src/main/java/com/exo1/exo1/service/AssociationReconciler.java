@@ -0,0 +1,107 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.repository.ProjetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applique un graphe reçu (projets et tâches en DTO) sur les entités gérées, sans {@code merge}.
+ * Les projets existants sont chargés en une requête ({@code IN}), les tâches existantes lues dans le cache
+ * de second niveau (les absentes en une requête), puis modifiés en place :
+ * Hibernate n'écrit au flush que les lignes réellement changées (dirty checking, différence des collections).
+ * Les éléments sans identifiant, ou d'identifiant inconnu, sont créés.
+ * À appeler dans une transaction.
+ */
+@Component
+@AllArgsConstructor
+public class AssociationReconciler {
+
+    private final ProjetRepository projetRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Charge en une requête les projets existants du graphe, avec leurs tâches.
+     *
+     * @param projetDtos les projets reçus.
+     * @return les projets gérés, par identifiant.
+     */
+    public Map<Long, Projet> findProjets(Collection<ProjetDto> projetDtos) {
+        List<Long> ids = projetDtos.stream().map(ProjetDto::getId).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return projetRepository.findAllWithTasksByIdIn(ids).stream()
+                .collect(Collectors.toMap(Projet::getId, Function.identity()));
+    }
+
+    /**
+     * Charge les tâches existantes du graphe, quel que soit leur projet actuel : depuis le cache de second niveau,
+     * et en une requête ({@code IN}) pour celles qui n'y sont pas.
+     *
+     * @param projetDtos les projets reçus.
+     * @return les tâches gérées, par identifiant.
+     */
+    public Map<Long, Task> findTasks(Collection<ProjetDto> projetDtos) {
+        List<Long> ids = projetDtos.stream()
+                .filter(projet -> projet.getTasks() != null)
+                .flatMap(projet -> projet.getTasks().stream())
+                .map(TaskDto::getId).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return entityManager.unwrap(Session.class).byMultipleIds(Task.class).multiLoad(ids).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    /**
+     * Reporte un projet reçu sur le projet géré (ou un nouveau projet) : nom, description et tâches.
+     * Les tâches reçues sont mises à jour et rattachées au projet ; les autres tâches du projet sont conservées.
+     * Les utilisateurs du projet ne sont pas modifiés.
+     *
+     * @param projetDto le projet reçu.
+     * @param projet le projet géré correspondant, ou null pour en créer un.
+     * @param tasks les tâches gérées, issues de {@link #findTasks}.
+     * @return le projet géré, ou le nouveau projet (persisté en cascade au flush).
+     */
+    public Projet apply(ProjetDto projetDto, Projet projet, Map<Long, Task> tasks) {
+        Projet target = projet != null ? projet : new Projet();
+        target.setName(projetDto.getName());
+        target.setDescription(projetDto.getDescription());
+        if (projetDto.getTasks() == null) {
+            return target;
+        }
+        for (TaskDto taskDto : projetDto.getTasks()) {
+            Task task = taskDto.getId() != null ? tasks.get(taskDto.getId()) : null;
+            if (task == null) {
+                task = new Task();
+            }
+            task.setTitle(taskDto.getTitle());
+            task.setStatus(taskDto.getStatus());
+            Projet previous = task.getProjet();
+            if (previous != target) {
+                // Ne retire la tâche de l'ancien projet que si ses tâches sont déjà chargées (pas de requête)
+                if (previous != null && Hibernate.isInitialized(previous.getTasks())) {
+                    previous.getTasks().remove(task);
+                }
+                task.setProjet(target);
+            }
+            target.getTasks().add(task);
+        }
+        return target;
+    }
+}
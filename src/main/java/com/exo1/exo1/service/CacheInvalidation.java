@@ -0,0 +1,59 @@
+package com.exo1.exo1.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Set;
+
+/**
+ * Une invalidation de cache : appliquée localement par {@link CacheInvalidator}, puis publiée comme événement
+ * Spring pour être rejouée par les autres instances (bus d'invalidation, profil {@code cluster}).
+ * Les clés sont des identifiants ({@code Long}) ou des chaînes, seuls types transmis tels quels entre instances.
+ *
+ * @param type la nature de l'invalidation.
+ * @param cache le nom du cache, ou null pour tous les caches ({@link Type#CLEAR}).
+ * @param key la clé, l'identifiant ou le texte, selon le type.
+ * @param ids les identifiants des éléments modifiés ({@link Type#PAGES_CONTAINING}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CacheInvalidation(Type type, String cache, Object key, Set<Long> ids) {
+
+    public enum Type {
+        // Une entrée, par sa clé
+        EVICT,
+        // Les pages contenant l'un des éléments
+        PAGES_CONTAINING,
+        // Les pages contenant un élément d'identifiant supérieur ou égal, et les pages incomplètes
+        PAGES_FROM,
+        // Les entrées dont la clé est une sous-chaîne du texte
+        KEYS_CONTAINED_IN,
+        // Tout le cache, ou tous les caches
+        CLEAR
+    }
+
+    public static CacheInvalidation evict(String cache, Object key) {
+        return new CacheInvalidation(Type.EVICT, cache, key, null);
+    }
+
+    public static CacheInvalidation pagesContaining(String cache, Set<Long> ids) {
+        return new CacheInvalidation(Type.PAGES_CONTAINING, cache, null, ids);
+    }
+
+    public static CacheInvalidation pagesFrom(String cache, Long id) {
+        return new CacheInvalidation(Type.PAGES_FROM, cache, id, null);
+    }
+
+    public static CacheInvalidation keysContainedIn(String cache, String text) {
+        return new CacheInvalidation(Type.KEYS_CONTAINED_IN, cache, text, null);
+    }
+
+    public static CacheInvalidation clear(String cache) {
+        return new CacheInvalidation(Type.CLEAR, cache, null, null);
+    }
+
+    /**
+     * @return la clé en {@code Long} si c'est un nombre : un identifiant relu depuis JSON peut être un {@code Integer}.
+     */
+    public Object normalizedKey() {
+        return key instanceof Number number ? Long.valueOf(number.longValue()) : key;
+    }
+}
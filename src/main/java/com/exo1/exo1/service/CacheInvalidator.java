@@ -0,0 +1,249 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.ProjetTaskCountDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Invalidation ciblée des caches Spring.
+ * Remplace les évictions {@code allEntries = true} : seules les entrées réellement touchées par une écriture
+ * sont retirées (clé exacte, pages contenant l'élément modifié, etc.).
+ * Les pages mises en cache sont supposées triées par identifiant.
+ * Dans une transaction, les caches locaux ne sont invalidés qu'à sa fin : invalidés avant le commit, un lecteur
+ * concurrent y remettrait la ligne encore inchangée, et son ancienne version (ETag).
+ * Chaque invalidation est aussi publiée comme {@link CacheInvalidation}, que le bus d'invalidation diffuse
+ * aux autres instances lorsqu'il est activé.
+ * Les écritures qui contournent Hibernate retirent aussi leurs entités du cache de second niveau, local à l'instance,
+ * avant et après la fin de la transaction.
+ */
+@Component
+@AllArgsConstructor
+public class CacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    /**
+     * Retire une entrée par sa clé. Sans effet si la clé est nulle.
+     *
+     * @param cacheName le nom du cache.
+     * @param key la clé à retirer.
+     */
+    public void evict(String cacheName, Object key) {
+        if (key != null) {
+            invalidate(CacheInvalidation.evict(cacheName, key));
+        }
+    }
+
+    /**
+     * Retire une entrée sur les autres instances seulement. À appeler par les méthodes {@code @CachePut},
+     * dont la nouvelle valeur ne remplace que l'entrée locale.
+     *
+     * @param cacheName le nom du cache.
+     * @param key la clé de l'entrée remplacée.
+     */
+    public void evictElsewhere(String cacheName, Object key) {
+        if (key != null) {
+            eventPublisher.publishEvent(CacheInvalidation.evict(cacheName, key));
+        }
+    }
+
+    /**
+     * Retire les entrées de pages (ou de listes) contenant l'élément d'identifiant donné.
+     * À utiliser après la modification d'un élément : les autres pages sont inchangées.
+     *
+     * @param cacheName le nom du cache.
+     * @param id l'identifiant de l'élément modifié.
+     */
+    public void evictPagesContaining(String cacheName, Long id) {
+        evictPagesContaining(cacheName, Set.of(id));
+    }
+
+    /**
+     * Retire, en un seul parcours du cache, les pages contenant au moins l'un des éléments donnés.
+     * À utiliser après une modification en masse.
+     *
+     * @param cacheName le nom du cache.
+     * @param ids les identifiants des éléments modifiés.
+     */
+    public void evictPagesContaining(String cacheName, Set<Long> ids) {
+        if (!ids.isEmpty()) {
+            invalidate(CacheInvalidation.pagesContaining(cacheName, ids));
+        }
+    }
+
+    /**
+     * Retire les pages contenant un élément d'identifiant supérieur ou égal à celui donné, ainsi que les pages
+     * incomplètes (dernière page et pages vides). À utiliser après une insertion ou une suppression : les pages
+     * suivantes sont décalées d'un élément. Un nouvel identifiant n'est pas forcément le plus grand (séquence
+     * allouée par blocs à chaque instance) : il peut s'insérer avant la fin de la liste.
+     *
+     * @param cacheName le nom du cache.
+     * @param id l'identifiant de l'élément inséré ou supprimé (le plus petit d'un lot).
+     */
+    public void evictPagesFrom(String cacheName, Long id) {
+        invalidate(CacheInvalidation.pagesFrom(cacheName, id));
+    }
+
+    /**
+     * Retire les entrées dont la clé est une sous-chaîne du texte donné, par exemple les recherches par fragment
+     * dont le résultat peut contenir un nom.
+     *
+     * @param cacheName le nom du cache.
+     * @param text le texte (nom créé, modifié ou supprimé).
+     */
+    public void evictKeysContainedIn(String cacheName, String text) {
+        invalidate(CacheInvalidation.keysContainedIn(cacheName, text));
+    }
+
+    /**
+     * Vide un cache, pour les écritures qui décalent toutes ses pages.
+     *
+     * @param cacheName le nom du cache.
+     */
+    public void clear(String cacheName) {
+        invalidate(CacheInvalidation.clear(cacheName));
+    }
+
+    /**
+     * Vide tous les caches, cache de second niveau Hibernate compris. Réservé aux écritures en masse hors JPA
+     * (import), dont les lignes touchées ne sont pas connues individuellement.
+     */
+    public void clearAll() {
+        invalidate(CacheInvalidation.clear(null));
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory != null) {
+            factory.getCache().evictAll();
+        }
+    }
+
+    /**
+     * Retire une entité du cache de second niveau Hibernate, après une écriture qui ne passe pas par Hibernate
+     * (UPDATE natif). Sans effet si l'identifiant est nul ou sans JPA.
+     * Retirée tout de suite, pour la suite de la transaction, et de nouveau à sa fin : rien ne verrouille l'entrée,
+     * et un lecteur concurrent pourrait sinon y remettre la ligne d'avant l'écriture jusqu'à son expiration.
+     *
+     * @param entityClass la classe de l'entité.
+     * @param id l'identifiant de l'entité modifiée.
+     */
+    public void evictEntity(Class<?> entityClass, Object id) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory != null && id != null) {
+            factory.getCache().evict(entityClass, id);
+            TransactionCallbacks.afterCompletion(() -> factory.getCache().evict(entityClass, id));
+        }
+    }
+
+    /**
+     * Applique une invalidation aux caches de cette instance, sans la publier.
+     * Utilisé pour rejouer les invalidations reçues des autres instances.
+     *
+     * @param invalidation l'invalidation à appliquer.
+     */
+    public void apply(CacheInvalidation invalidation) {
+        String cacheName = invalidation.cache();
+        switch (invalidation.type()) {
+            case EVICT -> {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.evict(invalidation.normalizedKey());
+                }
+            }
+            case PAGES_CONTAINING -> evictIf(cacheName, (key, value) -> itemsOf(value).stream()
+                    .anyMatch(item -> invalidation.ids().contains(idOf(item))));
+            case PAGES_FROM -> {
+                long id = ((Number) invalidation.key()).longValue();
+                evictIf(cacheName, (key, value) -> isPartialPage(key, value) || itemsOf(value).stream()
+                        .map(CacheInvalidator::idOf).anyMatch(itemId -> itemId != null && itemId >= id));
+            }
+            case KEYS_CONTAINED_IN -> evictIf(cacheName, (key, value) -> key instanceof String fragment
+                    && ((String) invalidation.key()).contains(fragment));
+            case CLEAR -> {
+                Collection<String> names = cacheName == null ? cacheManager.getCacheNames() : List.of(cacheName);
+                names.forEach(name -> {
+                    Cache cache = cacheManager.getCache(name);
+                    if (cache != null) {
+                        cache.clear();
+                    }
+                });
+            }
+        }
+    }
+
+    private void invalidate(CacheInvalidation invalidation) {
+        TransactionCallbacks.afterCompletion(() -> apply(invalidation));
+        eventPublisher.publishEvent(invalidation);
+    }
+
+    /**
+     * Parcourt les entrées du cache et retire celles qui vérifient le prédicat.
+     * Si le cache sous-jacent ne permet pas le parcours, il est vidé entièrement.
+     */
+    private void evictIf(String cacheName, BiPredicate<Object, Object> predicate) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            cache.clear();
+            return;
+        }
+        List<Object> keys = new ArrayList<>();
+        nativeCache.asMap().forEach((key, value) -> {
+            if (predicate.test(key, value)) {
+                keys.add(key);
+            }
+        });
+        keys.forEach(cache::evict);
+    }
+
+    /**
+     * Page incomplète : dernière page de la liste, ou page vide au-delà.
+     */
+    private static boolean isPartialPage(Object key, Object value) {
+        return key instanceof Pageable pageable && itemsOf(value).size() < pageable.getPageSize();
+    }
+
+    /**
+     * Éléments d'une valeur en cache : liste ou contenu d'une {@link Page}, vide sinon.
+     */
+    private static Collection<?> itemsOf(Object value) {
+        if (value instanceof Page<?> page) {
+            return page.getContent();
+        }
+        return value instanceof Collection<?> items ? items : List.of();
+    }
+
+    private static Long idOf(Object dto) {
+        if (dto instanceof TaskDto task) {
+            return task.getId();
+        }
+        if (dto instanceof ProjetDto projet) {
+            return projet.getId();
+        }
+        if (dto instanceof UserDto user) {
+            return user.getId();
+        }
+        if (dto instanceof ProjetTaskCountDto count) {
+            return count.getProject_id();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.exo1.exo1.service;
+
+import java.util.Locale;
+
+/**
+ * Formats d'échange des exports et imports en masse.
+ */
+public enum DataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    DataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Retrouve un format par son nom, sans tenir compte de la casse.
+     *
+     * @param name le nom du format (ndjson ou csv).
+     * @return le format correspondant.
+     * @throws IllegalArgumentException si le format n'est pas supporté.
+     */
+    public static DataFormat of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
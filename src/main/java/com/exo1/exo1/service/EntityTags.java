@@ -0,0 +1,138 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * ETag forts des ressources {@code /tasks/{id}}, {@code /projets/{id}} et {@code /users/{id}}.
+ * Une représentation est entièrement déterminée par les entités qu'elle contient et leurs versions
+ * ({@code @Version}, incrémentée à chaque écriture) : l'ETag est l'empreinte des couples (identifiant, version)
+ * de l'entité et de ses entités imbriquées (tâches d'un projet, projets et tâches d'un utilisateur).
+ * Il se calcule aussi bien depuis un DTO en cache que depuis une lecture des seules versions en base,
+ * et change dès qu'une entité imbriquée est modifiée, ajoutée ou retirée.
+ */
+public final class EntityTags {
+
+    private static final int TAG_BYTES = 12;
+
+    private final SortedSet<String> entries = new TreeSet<>();
+
+    private EntityTags() {
+    }
+
+    public static EntityTags builder() {
+        return new EntityTags();
+    }
+
+    public static String of(TaskDto task) {
+        return builder().task(task.getId(), task.getVersion()).build();
+    }
+
+    public static String of(ProjetDto projet) {
+        return builder().add(projet).build();
+    }
+
+    public static String of(UserDto user) {
+        EntityTags tags = builder().user(user.getId(), user.getVersion());
+        if (user.getProjets() != null) {
+            user.getProjets().forEach(tags::add);
+        }
+        return tags.build();
+    }
+
+    /**
+     * Ajoute un utilisateur ; comme pour les projets et les tâches, sans effet si l'identifiant est nul
+     * (ligne d'une jointure externe sans correspondance).
+     *
+     * @param id son identifiant.
+     * @param version sa version.
+     * @return ce builder.
+     */
+    public EntityTags user(Long id, Long version) {
+        return add('U', id, version);
+    }
+
+    public EntityTags projet(Long id, Long version) {
+        return add('P', id, version);
+    }
+
+    public EntityTags task(Long id, Long version) {
+        return add('T', id, version);
+    }
+
+    /**
+     * @return l'ETag entre guillemets, ou null si aucune entité n'a été ajoutée (ressource absente).
+     */
+    public String build() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        MessageDigest digest = sha256();
+        for (String entry : entries) {
+            digest.update(entry.getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) ';');
+        }
+        return '"' + HexFormat.of().formatHex(digest.digest(), 0, TAG_BYTES) + '"';
+    }
+
+    /**
+     * Comparaison forte d'un en-tête {@code If-Match} avec l'ETag actuel de la ressource :
+     * une ETag faible ({@code W/"..."}) ne correspond jamais.
+     *
+     * @param ifMatch la valeur de l'en-tête (une ou plusieurs ETag, ou {@code *}).
+     * @param current l'ETag actuel, null si la ressource n'existe pas.
+     * @return true si l'une des ETag correspond.
+     */
+    public static boolean matchesStrongly(String ifMatch, String current) {
+        return current != null && tags(ifMatch).anyMatch(tag -> tag.equals("*") || tag.equals(current));
+    }
+
+    /**
+     * Comparaison faible d'un en-tête {@code If-None-Match} avec l'ETag actuel de la ressource.
+     *
+     * @param ifNoneMatch la valeur de l'en-tête (une ou plusieurs ETag, ou {@code *}).
+     * @param current l'ETag actuel, null si la ressource n'existe pas.
+     * @return true si l'une des ETag correspond : la représentation du client est à jour.
+     */
+    public static boolean matchesWeakly(String ifNoneMatch, String current) {
+        return current != null && tags(ifNoneMatch)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(current) || tag.equals("W/" + current));
+    }
+
+    private static Stream<String> tags(String header) {
+        return header == null ? Stream.empty() : Arrays.stream(header.split(",")).map(String::strip);
+    }
+
+    private EntityTags add(ProjetDto projet) {
+        projet(projet.getId(), projet.getVersion());
+        if (projet.getTasks() != null) {
+            projet.getTasks().forEach(task -> task(task.getId(), task.getVersion()));
+        }
+        return this;
+    }
+
+    private EntityTags add(char kind, Long id, Long version) {
+        if (id != null) {
+            entries.add(kind + id.toString() + ':' + version);
+        }
+        return this;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.ProjetMapper;
+import com.exo1.exo1.mapper.TaskMapper;
+import com.exo1.exo1.repository.ProjetRepository;
+import com.exo1.exo1.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Export complet des tables task et projet en NDJSON ou CSV.
+ * Les lignes sont lues par un curseur côté serveur et écrites directement dans le flux de sortie ;
+ * le contexte de persistance est vidé tous les {@value #CHUNK_SIZE} éléments,
+ * la mémoire utilisée ne dépend donc pas du nombre de lignes exportées.
+ */
+@Service
+@AllArgsConstructor
+public class ExportService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final TaskRepository taskRepository;
+    private final ProjetRepository projetRepository;
+    private final TaskMapper taskMapper;
+    private final ProjetMapper projetMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Exporte toutes les tâches, triées par identifiant.
+     *
+     * @param format le format de sortie.
+     * @param out le flux de sortie (non fermé par cette méthode).
+     * @return le nombre de tâches exportées.
+     */
+    @Transactional(readOnly = true)
+    public long exportTasks(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamAll()) {
+            return write(tasks.map(taskMapper::toDto), format, out, new String[]{"id", "title", "status"},
+                    task -> new Object[]{task.getId(), task.getTitle(), task.getStatus()});
+        }
+    }
+
+    /**
+     * Exporte tous les projets (sans leurs tâches), triés par identifiant.
+     *
+     * @param format le format de sortie.
+     * @param out le flux de sortie (non fermé par cette méthode).
+     * @return le nombre de projets exportés.
+     */
+    @Transactional(readOnly = true)
+    public long exportProjets(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Projet> projets = projetRepository.streamAll()) {
+            return write(projets.map(projetMapper::toDtoWithoutTasks), format, out, new String[]{"id", "name", "description"},
+                    projet -> new Object[]{projet.getId(), projet.getName(), projet.getDescription()});
+        }
+    }
+
+    private <D> long write(Stream<D> rows, DataFormat format, OutputStream out, String[] header,
+                           Function<D, Object[]> columns) throws IOException {
+        return format == DataFormat.CSV ? writeCsv(rows.iterator(), out, header, columns) : writeNdjson(rows.iterator(), out);
+    }
+
+    private <D> long writeNdjson(Iterator<D> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            long count = 0;
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                if (++count % CHUNK_SIZE == 0) {
+                    endChunk(generator);
+                }
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+            return count;
+        }
+    }
+
+    private <D> long writeCsv(Iterator<D> rows, OutputStream out, String[] header,
+                              Function<D, Object[]> columns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, header);
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, columns.apply(rows.next()));
+            if (++count % CHUNK_SIZE == 0) {
+                endChunk(writer);
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Fin d'un bloc : envoie ce qui a été écrit au client et détache les entités déjà exportées.
+     */
+    private void endChunk(Flushable output) throws IOException {
+        output.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,160 @@
+package com.exo1.exo1.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecture ligne à ligne d'un fichier d'import NDJSON ou CSV (avec en-tête).
+ * Une seule ligne est en mémoire à la fois. Les lignes vides sont ignorées.
+ */
+class ImportRowReader {
+
+    /**
+     * Ligne lue.
+     *
+     * @param line le numéro de ligne dans le fichier (première ligne de l'enregistrement pour un CSV multiligne).
+     * @param values les valeurs par nom de champ ; null si la ligne est illisible.
+     * @param error le motif de rejet si la ligne est illisible.
+     */
+    record Row(long line, Map<String, String> values, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final DataFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+
+    ImportRowReader(BufferedReader reader, DataFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Lit la ligne suivante.
+     *
+     * @return la ligne, ou null en fin de fichier.
+     */
+    Row next() throws IOException {
+        return format == DataFormat.CSV ? nextCsv() : nextNdjson();
+    }
+
+    private Row nextNdjson() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            if (!node.isObject()) {
+                return new Row(line, null, "not a JSON object");
+            }
+            Map<String, String> values = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                if (field.getValue().isValueNode() && !field.getValue().isNull()) {
+                    values.put(field.getKey(), field.getValue().asText());
+                }
+            });
+            return new Row(line, values, null);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "malformed JSON");
+        }
+    }
+
+    private Row nextCsv() throws IOException {
+        if (header == null) {
+            header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+        }
+        List<String> record;
+        long start;
+        do {
+            start = line + 1;
+            record = readCsvRecord();
+        } while (record != null && record.size() == 1 && record.get(0) == null);
+        if (record == null) {
+            return null;
+        }
+        if (record.size() != header.size()) {
+            return new Row(start, null, "expected " + header.size() + " columns, found " + record.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            values.put(header.get(i), record.get(i));
+        }
+        return new Row(start, values, null);
+    }
+
+    /**
+     * Lit un enregistrement CSV (RFC 4180) : champs entre guillemets pouvant contenir des virgules,
+     * des guillemets doublés et des retours à la ligne. Un champ vide sans guillemets vaut null.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        boolean read = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (inQuotes) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n') {
+                line++;
+                fields.add(value(field, quoted));
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        line++;
+        fields.add(value(field, quoted));
+        return fields;
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.dto.ImportReportDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Import en masse (NDJSON ou CSV) des tables projet, task, users et users_projet.
+ * Les lignes valides sont chargées par COPY dans une table de transit temporaire, contrôlées en SQL
+ * (doublons, références inconnues), puis fusionnées dans la table réelle en une seule instruction
+ * INSERT ... ON CONFLICT. Le tout s'exécute dans une transaction : un échec n'importe aucune ligne.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ImportService {
+
+    private static final int MAX_REPORTED_REJECTS = 100;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProjetTaskCountService projetTaskCountService;
+    private final CacheInvalidator cacheInvalidator;
+    private final TaskTitleIndex taskTitleIndex;
+
+    /**
+     * Importe un fichier dans une table.
+     * Les écritures contournant JPA, les compteurs de tâches sont réconciliés, l'index des titres rechargé
+     * et les caches vidés ensuite.
+     *
+     * @param table la table cible.
+     * @param format le format du fichier.
+     * @param in le contenu du fichier (UTF-8).
+     * @return le rapport d'import : lignes lues, importées, rejetées, durée et débit.
+     */
+    public ImportReportDto importData(ImportTable table, DataFormat format, InputStream in) {
+        long start = System.nanoTime();
+        ImportReportDto report = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<ImportReportDto>) connection -> {
+                    try {
+                        return load(table, format, in, connection.unwrap(PGConnection.class));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        if (table == ImportTable.TASK || table == ImportTable.PROJET) {
+            projetTaskCountService.reconcile();
+        }
+        if (table == ImportTable.TASK) {
+            taskTitleIndex.load();
+        }
+        cacheInvalidator.clearAll();
+
+        long elapsed = System.nanoTime() - start;
+        report.setDurationMs(elapsed / 1_000_000);
+        report.setRowsPerSecond(report.getRowsImported() * 1_000_000_000d / elapsed);
+        log.info("Import {} : {} lignes lues, {} importées, {} rejetées en {} ms ({} lignes/s)", table.getTable(),
+                report.getRowsRead(), report.getRowsImported(), report.getRowsRejected(), report.getDurationMs(),
+                Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private ImportReportDto load(ImportTable table, DataFormat format, InputStream in, PGConnection connection)
+            throws IOException, SQLException {
+        jdbcTemplate.execute(table.createStaging());
+
+        List<ImportReportDto.Reject> rejects = new ArrayList<>();
+        long read = 0;
+        long rejected = 0;
+        ImportRowReader reader = new ImportRowReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), format, objectMapper);
+        try (Writer copy = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(connection, table.copy(), COPY_BUFFER_SIZE), StandardCharsets.UTF_8))) {
+            for (ImportRowReader.Row row = reader.next(); row != null; row = reader.next()) {
+                read++;
+                String error = row.error() != null ? row.error() : table.validate(row.values());
+                if (error != null) {
+                    rejected++;
+                    report(rejects, row.line(), error);
+                    continue;
+                }
+                copy.write(Long.toString(row.line()));
+                for (ImportTable.Field field : table.fields()) {
+                    copy.write(',');
+                    copy.write(csvField(row.values().get(field.name()), field.numeric()));
+                }
+                copy.write('\n');
+            }
+        }
+
+        for (ImportTable.Check check : table.checks()) {
+            for (Long line : jdbcTemplate.queryForList(table.reject(check), Long.class)) {
+                rejected++;
+                report(rejects, line, check.reason());
+            }
+        }
+        long imported = jdbcTemplate.update(table.merge());
+        if (table.syncSequence() != null) {
+            jdbcTemplate.queryForList(table.syncSequence());
+        }
+        rejects.sort(Comparator.comparingLong(ImportReportDto.Reject::getLine));
+        return new ImportReportDto(table.getTable(), read, imported, rejected, 0, 0, rejects);
+    }
+
+    private static void report(List<ImportReportDto.Reject> rejects, long line, String reason) {
+        if (rejects.size() < MAX_REPORTED_REJECTS) {
+            rejects.add(new ImportReportDto.Reject(line, reason));
+        }
+    }
+
+    /**
+     * Champ au format CSV de COPY : vide pour NULL, entre guillemets pour un texte (chaîne vide comprise).
+     */
+    private static String csvField(String value, boolean numeric) {
+        if (value == null || (numeric && value.isBlank())) {
+            return "";
+        }
+        if (numeric) {
+            return value.trim();
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,202 @@
+package com.exo1.exo1.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tables alimentées par l'import en masse.
+ * Chaque table décrit ses champs d'entrée (noms des DTO), sa table de transit, les contrôles
+ * d'intégrité exécutés sur la table de transit et l'instruction de fusion vers la table réelle.
+ */
+public enum ImportTable {
+
+    PROJET("projet", "projet_id", "projet_projet_id_seq",
+            List.of(Field.id("projet_id"), Field.text("name", "name", true), Field.text("description", "description", false)),
+            "ON CONFLICT (projet_id) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description,"
+                    + " version = projet.version + 1",
+            List.of()),
+
+    TASK("task", "task_id", "task_task_id_seq",
+            List.of(Field.id("task_id"), Field.text("title", "title", true), Field.text("status", "status", false),
+                    Field.reference("projetId", "projet_id", false), Field.reference("userId", "users_id", false)),
+            "ON CONFLICT (task_id) DO UPDATE SET title = EXCLUDED.title, status = EXCLUDED.status,"
+                    + " projet_id = EXCLUDED.projet_id, users_id = EXCLUDED.users_id, version = task.version + 1",
+            List.of(Check.unknown("projet_id", "projet"), Check.unknown("users_id", "users"),
+                    new Check("user already assigned to another task",
+                            "s.users_id IS NOT NULL AND (EXISTS (SELECT 1 FROM {staging} o WHERE o.users_id = s.users_id AND o.line < s.line)"
+                                    + " OR EXISTS (SELECT 1 FROM task t WHERE t.users_id = s.users_id AND t.task_id IS DISTINCT FROM s.task_id))"))),
+
+    USERS("users", "users_id", "users_users_id_seq",
+            List.of(Field.id("users_id"), Field.text("name", "name", true), Field.text("email", "email", false)),
+            "ON CONFLICT (users_id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email,"
+                    + " version = users.version + 1",
+            List.of()),
+
+    USERS_PROJET("users_projet", null, null,
+            List.of(Field.reference("userId", "users_id", true), Field.reference("projetId", "projet_id", true)),
+            "ON CONFLICT DO NOTHING",
+            List.of(Check.unknown("users_id", "users"), Check.unknown("projet_id", "projet")));
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final String table;
+    private final String idColumn;
+    private final String sequence;
+    private final List<Field> fields;
+    private final String onConflict;
+    private final List<Check> checks;
+
+    ImportTable(String table, String idColumn, String sequence, List<Field> fields, String onConflict, List<Check> checks) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.sequence = sequence;
+        this.fields = fields;
+        this.onConflict = onConflict;
+        this.checks = checks;
+    }
+
+    /**
+     * Champ d'entrée et colonne correspondante.
+     *
+     * @param name le nom du champ en entrée (NDJSON ou en-tête CSV).
+     * @param column la colonne de la table.
+     * @param numeric vrai pour un identifiant (bigint).
+     * @param required vrai si le champ est obligatoire.
+     */
+    record Field(String name, String column, boolean numeric, boolean required) {
+
+        static Field id(String column) {
+            return new Field("id", column, true, false);
+        }
+
+        static Field text(String name, String column, boolean required) {
+            return new Field(name, column, false, required);
+        }
+
+        static Field reference(String name, String column, boolean required) {
+            return new Field(name, column, true, required);
+        }
+    }
+
+    /**
+     * Contrôle d'intégrité : les lignes de transit vérifiant la condition sont rejetées avec le motif donné.
+     * {@code s} désigne la ligne de transit, {@code {staging}} la table de transit.
+     */
+    record Check(String reason, String condition) {
+
+        /**
+         * Rejette les références vers une ligne absente de la table référencée (clé primaire de même nom).
+         */
+        static Check unknown(String column, String table) {
+            return new Check("unknown " + column, "s." + column + " IS NOT NULL AND NOT EXISTS (SELECT 1 FROM " + table
+                    + " r WHERE r." + column + " = s." + column + ")");
+        }
+    }
+
+    /**
+     * Retrouve une table par son nom, sans tenir compte de la casse.
+     *
+     * @param name le nom de la table (projet, task, users ou users_projet).
+     * @return la table correspondante.
+     * @throws IllegalArgumentException si la table n'est pas importable.
+     */
+    public static ImportTable of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    List<Field> fields() {
+        return fields;
+    }
+
+    /**
+     * Valide une ligne d'entrée.
+     *
+     * @param values les valeurs de la ligne, par nom de champ.
+     * @return le motif de rejet, ou null si la ligne est valide.
+     */
+    String validate(Map<String, String> values) {
+        for (Field field : fields) {
+            String value = values.get(field.name());
+            if (value == null || value.isBlank()) {
+                if (field.required()) {
+                    return "missing " + field.name();
+                }
+            } else if (!field.numeric() && value.length() > MAX_TEXT_LENGTH) {
+                return field.name() + " longer than " + MAX_TEXT_LENGTH + " characters";
+            } else if (field.numeric()) {
+                try {
+                    Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    return "invalid " + field.name() + ": " + value;
+                }
+            }
+        }
+        return null;
+    }
+
+    String stagingTable() {
+        return "import_" + table;
+    }
+
+    String createStaging() {
+        return "CREATE TEMP TABLE " + stagingTable() + " (line bigint, "
+                + fields.stream().map(f -> f.column() + (f.numeric() ? " bigint" : " varchar(" + MAX_TEXT_LENGTH + ")")).collect(Collectors.joining(", "))
+                + ") ON COMMIT DROP";
+    }
+
+    String copy() {
+        return "COPY " + stagingTable() + " (line, " + columns() + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    /**
+     * Contrôles exécutés sur la table de transit : doublons d'identifiant puis contrôles propres à la table.
+     */
+    List<Check> checks() {
+        List<Check> all = new ArrayList<>();
+        if (idColumn != null) {
+            all.add(new Check("duplicate id", "s." + idColumn + " IS NOT NULL AND EXISTS (SELECT 1 FROM {staging} o WHERE o."
+                    + idColumn + " = s." + idColumn + " AND o.line < s.line)"));
+        }
+        all.addAll(checks);
+        return all;
+    }
+
+    String reject(Check check) {
+        return "DELETE FROM " + stagingTable() + " s WHERE " + check.condition().replace("{staging}", stagingTable())
+                + " RETURNING s.line";
+    }
+
+    /**
+     * Fusion ensembliste de la table de transit vers la table réelle.
+     * Les lignes sans identifiant en reçoivent un de la séquence de la table.
+     */
+    String merge() {
+        String select = idColumn == null ? "DISTINCT " + columns() : fields.stream()
+                .map(f -> f.column().equals(idColumn) ? "COALESCE(" + idColumn + ", nextval('" + sequence + "'))" : f.column())
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + columns() + ") SELECT " + select + " FROM " + stagingTable() + " " + onConflict;
+    }
+
+    /**
+     * Avance la séquence au-delà des identifiants importés explicitement, pour que les prochaines insertions
+     * (JPA ou import) ne les réutilisent pas. Null pour une table de jointure.
+     */
+    String syncSequence() {
+        if (sequence == null) {
+            return null;
+        }
+        return "SELECT setval('" + sequence + "', m) FROM (SELECT MAX(" + idColumn + ") m FROM " + table + ") t"
+                + " WHERE m > (SELECT last_value FROM " + sequence + ")";
+    }
+
+    private String columns() {
+        return fields.stream().map(Field::column).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,16 @@
+package com.exo1.exo1.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * L'en-tête {@code If-Match} d'une écriture ne correspond plus à l'ETag de la ressource :
+ * elle a été modifiée depuis sa lecture par le client (réponse 412).
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,45 +1,93 @@
 package com.exo1.exo1.service;
 
 import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.ProjetSearchResultDto;
 import com.exo1.exo1.entity.Projet;
 import com.exo1.exo1.mapper.ProjetMapper;
 import com.exo1.exo1.repository.ProjetRepository;
-import com.exo1.exo1.repository.TaskRepository;
+import com.exo1.exo1.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.webjars.NotFoundException;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class ProjetService {
+    private static final int SEARCH_CANDIDATES = 100;
+    /** Nombre maximal de résultats d'une recherche : les candidats par fragment et les candidats approchants. */
+    public static final int SEARCH_WINDOW = 2 * SEARCH_CANDIDATES;
+
     private final ProjetRepository projetRepository;
+    private final UserRepository userRepository;
     private final ProjetMapper projetMapper;
-    private final TaskRepository taskRepository;
+    private final AssociationReconciler associationReconciler;
+    private final CacheInvalidator cacheInvalidator;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
 
     /**
      * Récupère une liste paginée de projets.
-     * Utilise le mapper pour transformer les entités en DTO.
+     * Charge d'abord les identifiants de la page, puis les projets et leurs tâches en une seule requête,
+     * soit deux requêtes quelle que soit la taille de la page (pas de N+1 sur les tâches),
+     * une seule si tous les projets de la page sont dans le cache de second niveau.
      * @param pageable l'objet de pagination contenant le numéro de page et la taille de la page.
      * @return une liste de ProjetDto correspondant à la page demandée.
      */
+    @Transactional(readOnly = true)
     public List<ProjetDto> findAll(Pageable pageable) {
-        return projetMapper.toDtos(projetRepository.findAll(pageable).getContent());
+        return projetMapper.toDtos(findAllWithTasks(projetRepository.findPageIds(pageable)));
+    }
+
+    /**
+     * Récupère les projets suivant un identifiant donné (pagination par curseur).
+     * Le coût reste constant quelle que soit la profondeur de la page.
+     * @param afterId l'identifiant du dernier projet déjà reçu (0 pour commencer).
+     * @param size le nombre maximal de projets à retourner.
+     * @return les projets d'identifiant supérieur à afterId, triés par identifiant.
+     */
+    @Transactional(readOnly = true)
+    public List<ProjetDto> findAfter(long afterId, int size) {
+        return projetMapper.toDtos(findAllWithTasks(projetRepository.findIdsAfter(afterId, Limit.of(size))));
     }
 
     /**
-     * Récupère un projet spécifique par son ID.
+     * Récupère un projet spécifique par son ID, avec ses tâches.
+     * Lu dans le cache de second niveau s'il y est, sans requête ; sinon chargé avec ses tâches en une requête.
      * Cette méthode est mise en cache pour réduire les appels à la base de données.
      * @param id l'identifiant du projet.
      * @return le ProjetDto correspondant, ou null si le projet n'existe pas.
      */
     @Cacheable(value = "projetsById", key = "#id")
+    @Transactional(readOnly = true)
     public ProjetDto findById(long id) {
-        return projetMapper.toDto(projetRepository.findById(id).orElse(null));
+        return projetMapper.toDto(findAllWithTasks(List.of(id)).get(0));
+    }
+
+    /**
+     * ETag de la représentation du projet et de ses tâches ({@link EntityTags}).
+     * Calculé depuis le projet en cache s'il y est, sinon depuis les seules versions en base, sans charger les entités.
+     * @param id l'identifiant du projet.
+     * @return l'ETag, ou null si le projet n'existe pas.
+     */
+    public String etag(long id) {
+        Cache cache = cacheManager.getCache("projetsById");
+        ProjetDto cached = cache == null ? null : cache.get(id, ProjetDto.class);
+        return cached != null ? EntityTags.of(cached) : storedEtag(id);
     }
 
     /**
@@ -49,10 +97,37 @@ public class ProjetService {
      * @return une liste de ProjetDto correspondant au critère fourni.
      */
     @Cacheable(value = "projetsByTest", key = "#name")
+    @Transactional(readOnly = true)
     public List<ProjetDto> findByTest(String name) {
         return projetMapper.toDtos(projetRepository.findByTest(name));
     }
 
+    /**
+     * Recherche des projets par fragment ou par nom approché, via l'index trigramme du nom.
+     * Les noms contenant le fragment (sans tenir compte de la casse) viennent en premier, puis les noms
+     * approchants par similarité décroissante. Pour borner la latence, seuls les {@value #SEARCH_CANDIDATES}
+     * premiers projets contenant le fragment et autant de projets approchants sont classés : une recherche
+     * trop répandue est à préciser, et une recherche ne renvoie jamais plus de {@value #SEARCH_WINDOW} résultats.
+     * Non mise en cache : chaque texte recherché serait une entrée.
+     * @param query le texte recherché.
+     * @param pageable la page de résultats demandée.
+     * @return les projets trouvés (sans leurs tâches) avec leur score de similarité.
+     */
+    @Transactional(readOnly = true)
+    public List<ProjetSearchResultDto> search(String query, Pageable pageable) {
+        return projetMapper.toSearchResults(projetRepository.search(query, containsPattern(query), SEARCH_CANDIDATES, pageable));
+    }
+
+    /**
+     * Motif ILIKE des noms contenant le texte : les caractères spéciaux de LIKE ({@code \}, {@code %} et {@code _})
+     * y sont échappés.
+     * @param query le texte recherché.
+     * @return le motif, avec {@code \} pour caractère d'échappement.
+     */
+    static String containsPattern(String query) {
+        return "%" + query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
     /**
      * Récupère une liste de projets correspondant à un nom donné.
      * Cette méthode est mise en cache pour réduire les appels à la base de données.
@@ -60,55 +135,136 @@ public class ProjetService {
      * @return une liste de ProjetDto correspondant au nom spécifié.
      */
     @Cacheable(value = "projetsByName", key = "#name")
+    @Transactional(readOnly = true)
     public List<ProjetDto> findByName(String name) {
         return projetMapper.toDtos(projetRepository.findByName(name));
     }
 
     /**
      * Crée un nouveau projet et initialise les relations de tâches si présentes.
-     * Met à jour le cache après l'ajout d'un projet.
+     * Met le projet en cache par identifiant et n'invalide que les recherches qui peuvent le contenir.
      * @param projetDto les informations du projet à créer.
      * @return le ProjetDto du projet nouvellement créé.
      */
-    @CacheEvict(value = {"projetsById", "projetsByName", "projetsByTest"}, allEntries = true)
+    @Transactional
+    @CachePut(value = "projetsById", key = "#result.id")
     public ProjetDto save(ProjetDto projetDto) {
         Projet projet = projetMapper.toEntity(projetDto);
         if (projet.getTasks() != null) {
             projet.getTasks().forEach(t -> t.setProjet(projet));
         }
-        return projetMapper.toDto(projetRepository.save(projet));
+        ProjetDto saved = projetMapper.toDto(projetRepository.save(projet));
+        cacheInvalidator.evictElsewhere("projetsById", saved.getId());
+        evictSearches(saved.getName());
+        return saved;
     }
 
     /**
      * Met à jour un projet existant en utilisant les nouvelles informations fournies.
-     * Actualise le cache après la mise à jour.
+     * Le projet et ses tâches sont chargés en une requête, les tâches reçues en une autre, puis modifiés en place :
+     * seules les lignes changées sont écrites, quel que soit le nombre de tâches. Les tâches absentes
+     * de la requête restent rattachées au projet, les tâches sans identifiant sont créées.
+     * Si {@code ifMatch} est renseigné et ne correspond plus à l'ETag du projet, lève une PreconditionFailedException.
+     * Remplace l'entrée en cache du projet et n'invalide que les recherches portant sur l'ancien ou le nouveau nom
+     * et les utilisateurs du projet.
      * @param id l'ID du projet à mettre à jour.
      * @param projetDto les informations mises à jour du projet.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
      * @return le ProjetDto du projet mis à jour.
      */
-    @CacheEvict(value = {"projetsById", "projetsByName", "projetsByTest"}, allEntries = true)
-    public ProjetDto update(Long id, ProjetDto projetDto) {
-        Projet existingProjet = projetRepository.findById(id)
+    @Transactional
+    @CachePut(value = "projetsById", key = "#id")
+    public ProjetDto update(Long id, ProjetDto projetDto, String ifMatch) {
+        Projet projet = projetRepository.findAllWithTasksByIdIn(List.of(id)).stream().findFirst()
                 .orElseThrow(() -> new NotFoundException("Projet not found with id " + id));
-        projetDto.setId(existingProjet.getId());
-        Projet projetUpdated = projetMapper.toEntity(projetDto);
-        if (projetUpdated.getTasks() != null) {
-            projetUpdated.getTasks().forEach(t -> {
-                if (taskRepository.existsById(t.getId())) {
-                    t.setProjet(projetUpdated);
-                }
-            });
-        }
-        return projetMapper.toDto(projetRepository.save(projetUpdated));
+        checkPrecondition(id, ifMatch);
+        evictSearches(projet.getName());
+        associationReconciler.apply(projetDto, projet, associationReconciler.findTasks(List.of(projetDto)));
+        projetRepository.flush();
+        ProjetDto updated = projetMapper.toDto(projet);
+        cacheInvalidator.evictElsewhere("projetsById", id);
+        evictSearches(updated.getName());
+        evictUsers(id);
+        return updated;
     }
 
     /**
      * Supprime un projet en fonction de son identifiant.
-     * Supprime les entrées du cache associées après la suppression.
+     * Si {@code ifMatch} est renseigné et ne correspond plus à l'ETag du projet, lève une PreconditionFailedException.
+     * N'invalide que l'entrée du projet, les recherches qui pouvaient le contenir et ses utilisateurs.
      * @param id l'identifiant du projet à supprimer.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
+     */
+    @Transactional
+    public void delete(Long id, String ifMatch) {
+        projetRepository.findById(id).ifPresent(projet -> {
+            checkPrecondition(id, ifMatch);
+            evictUsers(id);
+            projetRepository.delete(projet);
+            cacheInvalidator.evict("projetsById", id);
+            evictSearches(projet.getName());
+        });
+    }
+
+    private String storedEtag(long id) {
+        EntityTags tags = EntityTags.builder();
+        projetRepository.findGraphVersions(id).forEach(row -> tags.projet(row.getProjetId(), row.getProjetVersion())
+                .task(row.getTaskId(), row.getTaskVersion()));
+        return tags.build();
+    }
+
+    /**
+     * Compare If-Match à l'ETag en base (et non en cache). En cas d'échec, le projet est retiré du cache
+     * pour que le client relise l'état actuel.
+     */
+    private void checkPrecondition(long id, String ifMatch) {
+        if (ifMatch != null && !EntityTags.matchesStrongly(ifMatch, storedEtag(id))) {
+            cacheInvalidator.evict("projetsById", id);
+            throw new PreconditionFailedException("Projet " + id + " has changed since " + ifMatch);
+        }
+    }
+
+    /**
+     * Invalide les utilisateurs liés au projet et les pages d'utilisateurs qui les contiennent :
+     * leur représentation (et leur ETag) inclut le projet et ses tâches.
+     * @param id l'identifiant du projet modifié ou supprimé.
      */
-    @CacheEvict(value = {"projetsById", "projetsByName", "projetsByTest"}, allEntries = true)
-    public void delete(Long id) {
-        projetRepository.deleteById(id);
+    private void evictUsers(long id) {
+        Set<Long> userIds = new HashSet<>(userRepository.findIdsByProjetIdIn(List.of(id)));
+        userIds.forEach(userId -> cacheInvalidator.evict("userById", userId));
+        cacheInvalidator.evictPagesContaining("usersByPage", userIds);
+    }
+
+    /**
+     * Invalide les recherches dont le résultat peut contenir un projet de ce nom :
+     * la recherche exacte par nom et les recherches par fragment contenu dans le nom.
+     * @param name le nom du projet créé, modifié ou supprimé.
+     */
+    private void evictSearches(String name) {
+        if (name == null) {
+            return;
+        }
+        cacheInvalidator.evict("projetsByName", name);
+        cacheInvalidator.evictKeysContainedIn("projetsByTest", name);
+    }
+
+    /**
+     * Charge les projets demandés avec leurs tâches en conservant l'ordre des identifiants.
+     * Les projets présents dans le cache de second niveau y sont lus avec la liste de leurs tâches et les tâches ;
+     * les autres sont chargés en une requête, qui remplit ce cache.
+     * @param ids les identifiants des projets, dans l'ordre attendu.
+     * @return les projets correspondants, dans le même ordre.
+     */
+    private List<Projet> findAllWithTasks(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> missing = ids.stream().filter(id -> !entityManagerFactory.getCache().contains(Projet.class, id))
+                .collect(Collectors.toSet());
+        Map<Long, Projet> projets = missing.isEmpty() ? Map.of() : projetRepository.findAllWithTasksByIdIn(missing)
+                .stream().collect(Collectors.toMap(Projet::getId, Function.identity()));
+        return ids.stream()
+                .map(id -> missing.contains(id) ? projets.get(id) : projetRepository.findById(id).orElse(null))
+                .toList();
     }
 }
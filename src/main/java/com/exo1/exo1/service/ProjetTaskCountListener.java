@@ -0,0 +1,147 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintient la table projet_task_count à partir des écritures Hibernate sur les tâches et les projets.
+ * Les variations sont cumulées par transaction (une tâche créée : +1, supprimée : -1, déplacée : -1 / +1)
+ * puis appliquées en une fois juste avant le commit, dans la même transaction que les écritures.
+ * Les requêtes JPQL/SQL en masse ne déclenchent pas ces événements : la réconciliation
+ * {@link ProjetTaskCountService#reconcile()} rattrape ces cas.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjetTaskCountListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProjetTaskCountService projetTaskCountService;
+    private final Map<EventSource, Changes> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Task task) {
+            changes(event.getSession()).delta(projetId(task.getProjet()), 1);
+        } else if (event.getEntity() instanceof Projet projet) {
+            changes(event.getSession()).created.put(projet.getId(), projet.getName());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object[] oldState = event.getOldState();
+        if (event.getEntity() instanceof Task task) {
+            Long oldProjetId = oldState == null ? null : projetId(oldState[propertyIndex(event.getPersister(), "projet")]);
+            Long newProjetId = projetId(task.getProjet());
+            if (oldState != null && !Objects.equals(oldProjetId, newProjetId)) {
+                Changes changes = changes(event.getSession());
+                changes.delta(oldProjetId, -1);
+                changes.delta(newProjetId, 1);
+            }
+        } else if (event.getEntity() instanceof Projet projet) {
+            if (oldState == null || !Objects.equals(oldState[propertyIndex(event.getPersister(), "name")], projet.getName())) {
+                changes(event.getSession()).renamed.put(projet.getId(), projet.getName());
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Task) {
+            Object projet = event.getDeletedState()[propertyIndex(event.getPersister(), "projet")];
+            changes(event.getSession()).delta(projetId(projet), -1);
+        } else if (event.getEntity() instanceof Projet) {
+            changes(event.getSession()).removed.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Variations de la transaction en cours pour cette session.
+     * À la première variation, enregistre l'application des changements avant le commit
+     * et leur abandon après la fin de la transaction (commit ou rollback).
+     */
+    private Changes changes(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess(beforeCompletion -> apply(pending.remove(s)));
+            s.getActionQueue().registerProcess((success, afterCompletion) -> pending.remove(s));
+            return new Changes();
+        });
+    }
+
+    private void apply(Changes changes) {
+        if (changes == null) {
+            return;
+        }
+        changes.deltas.values().removeIf(delta -> delta == 0);
+        if (!changes.created.isEmpty()) {
+            projetTaskCountService.addProjets(changes.created);
+        }
+        if (!changes.renamed.isEmpty()) {
+            projetTaskCountService.renameProjets(changes.renamed);
+        }
+        if (!changes.deltas.isEmpty()) {
+            projetTaskCountService.applyDeltas(changes.deltas);
+        }
+        if (!changes.removed.isEmpty()) {
+            projetTaskCountService.removeProjets(changes.removed);
+        }
+    }
+
+    private static int propertyIndex(EntityPersister persister, String property) {
+        return persister.getEntityMetamodel().getPropertyIndex(property);
+    }
+
+    private static Long projetId(Object projet) {
+        return projet instanceof Projet p ? p.getId() : null;
+    }
+
+    private static class Changes {
+        private final Map<Long, String> created = new LinkedHashMap<>();
+        private final Map<Long, String> renamed = new HashMap<>();
+        private final Map<Long, Long> deltas = new HashMap<>();
+        private final Set<Long> removed = new HashSet<>();
+
+        private void delta(Long projetId, long delta) {
+            if (projetId != null) {
+                deltas.merge(projetId, delta, Long::sum);
+            }
+        }
+    }
+}
@@ -4,40 +4,152 @@ import com.exo1.exo1.dto.ProjetTaskCountDto;
 import com.exo1.exo1.mapper.ProjetTaskCountMapper;
 import com.exo1.exo1.repository.ProjetTaskCountRepository;
 import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Nombre de tâches par projet, maintenu dans la table projet_task_count.
+ * Les compteurs sont mis à jour par deltas (+1 / -1) à chaque écriture de tâche ou de projet
+ * (voir {@link ProjetTaskCountListener}) ; une réconciliation périodique détecte et corrige les dérives.
+ */
+@Slf4j
 @Service
 @AllArgsConstructor
 public class ProjetTaskCountService {
 
+    private static final int RECONCILE_ATTEMPTS = 3;
+
     private final ProjetTaskCountRepository projetTaskCountRepository;
     private final ProjetTaskCountMapper projetTaskCountMapper;
     private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final PlatformTransactionManager transactionManager;
 
     /**
-     * Récupère une page de données paginées sur le nombre de tâches par projet.
+     * Récupère une page de données paginées sur le nombre de tâches par projet, triées par projet.
      * Utilise le mapper pour convertir chaque entité en DTO.
      *
      * @param pageable l'objet de pagination contenant le numéro de page et la taille de la page.
      * @return une page de ProjetTaskCountDto représentant le nombre de tâches par projet.
      */
     @Cacheable("projetTaskCounts")
+    @Transactional(readOnly = true)
     public Page<ProjetTaskCountDto> findAll(Pageable pageable) {
-        return projetTaskCountRepository.findAll(pageable)
+        Pageable byProjet = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("projetId"));
+        return projetTaskCountRepository.findAll(byProjet)
                 .map(projetTaskCountMapper::toDto);
     }
 
     /**
-     * Rafraîchit la vue matérialisée projet_task_count dans la base de données.
-     * Vide également le cache lié au nombre de tâches par projet pour garantir que les données sont à jour.
+     * Crée les compteurs (à zéro) des nouveaux projets.
+     * Un nouveau projet décale les pages suivantes : toutes les pages en cache sont retirées.
+     *
+     * @param projets les noms des projets créés, par identifiant.
+     */
+    public void addProjets(Map<Long, String> projets) {
+        jdbcTemplate.batchUpdate("INSERT INTO projet_task_count (projet_id, name, task_count) VALUES (?, ?, 0)",
+                projets.entrySet().stream().map(e -> new Object[]{e.getKey(), e.getValue()}).toList());
+        cacheInvalidator.clear("projetTaskCounts");
+    }
+
+    /**
+     * Reporte les nouveaux noms des projets renommés sur leurs compteurs.
+     *
+     * @param projets les nouveaux noms, par identifiant de projet.
+     */
+    public void renameProjets(Map<Long, String> projets) {
+        jdbcTemplate.batchUpdate("UPDATE projet_task_count SET name = ? WHERE projet_id = ?",
+                projets.entrySet().stream().map(e -> new Object[]{e.getValue(), e.getKey()}).toList());
+        cacheInvalidator.evictPagesContaining("projetTaskCounts", projets.keySet());
+    }
+
+    /**
+     * Applique les deltas (+1 à la création d'une tâche, -1 à sa suppression) aux compteurs des projets.
+     * Seules les pages en cache contenant ces projets sont retirées.
+     *
+     * @param deltas la variation du nombre de tâches, par identifiant de projet.
      */
-    @CacheEvict(value = "projetTaskCounts", allEntries = true)
-    public void refreshMaterializedView() {
-        jdbcTemplate.execute("REFRESH MATERIALIZED VIEW projet_task_count");
+    public void applyDeltas(Map<Long, Long> deltas) {
+        jdbcTemplate.batchUpdate("UPDATE projet_task_count SET task_count = task_count + ? WHERE projet_id = ?",
+                deltas.entrySet().stream().map(e -> new Object[]{e.getValue(), e.getKey()}).toList());
+        cacheInvalidator.evictPagesContaining("projetTaskCounts", deltas.keySet());
+    }
+
+    /**
+     * Supprime les compteurs des projets supprimés.
+     *
+     * @param projetIds les identifiants des projets supprimés.
+     */
+    public void removeProjets(Collection<Long> projetIds) {
+        jdbcTemplate.batchUpdate("DELETE FROM projet_task_count WHERE projet_id = ?",
+                projetIds.stream().map(id -> new Object[]{id}).toList());
+        cacheInvalidator.clear("projetTaskCounts");
+    }
+
+    /**
+     * Réconcilie la table projet_task_count avec les tables projet et task (détection de dérive).
+     * Ajoute les compteurs manquants, retire ceux des projets disparus et corrige les valeurs divergentes.
+     * Ne remplace pas la maintenance incrémentale : en fonctionnement normal, aucune ligne n'est modifiée.
+     * La correction est calculée et écrite par une seule requête, en lecture répétable : un delta validé
+     * pendant la réconciliation sur un compteur qu'elle corrige fait échouer la transaction, rejouée
+     * depuis un nouvel instantané, au lieu d'être écrasé par une valeur absolue calculée sans lui.
+     *
+     * @return le nombre de compteurs corrigés.
+     */
+    @Scheduled(fixedDelayString = "${app.task-count.reconcile-interval:PT1H}",
+            initialDelayString = "${app.task-count.reconcile-interval:PT1H}")
+    public int reconcile() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer drift = transaction.execute(status -> reconcileCounts());
+                if (drift > 0) {
+                    log.warn("projet_task_count: {} compteur(s) divergent(s) corrigé(s) par la réconciliation", drift);
+                }
+                cacheInvalidator.clear("projetTaskCounts");
+                return drift;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == RECONCILE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("projet_task_count: réconciliation rejouée après une écriture concurrente", e);
+            }
+        }
+    }
+
+    private int reconcileCounts() {
+        int drift = jdbcTemplate.update("""
+                INSERT INTO projet_task_count (projet_id, name, task_count)
+                SELECT p.projet_id, p.name, 0 FROM projet p
+                WHERE NOT EXISTS (SELECT 1 FROM projet_task_count c WHERE c.projet_id = p.projet_id)
+                ON CONFLICT DO NOTHING""");
+        drift += jdbcTemplate.update("""
+                DELETE FROM projet_task_count c
+                WHERE NOT EXISTS (SELECT 1 FROM projet p WHERE p.projet_id = c.projet_id)""");
+        // Un seul agrégat sur task (pas de sous-requête corrélée par projet), et seules les lignes divergentes écrites
+        drift += jdbcTemplate.update("""
+                UPDATE projet_task_count c SET name = x.name, task_count = x.task_count
+                FROM (SELECT p.projet_id, p.name, COUNT(t.task_id) AS task_count
+                      FROM projet p LEFT JOIN task t ON t.projet_id = p.projet_id
+                      GROUP BY p.projet_id, p.name) x
+                WHERE c.projet_id = x.projet_id
+                  AND (c.task_count <> x.task_count OR c.name IS DISTINCT FROM x.name)""");
+        return drift;
     }
 }
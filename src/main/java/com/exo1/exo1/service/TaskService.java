@@ -1,34 +1,69 @@
 package com.exo1.exo1.service;
 
 import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.TaskStatusUpdateDto;
+import com.exo1.exo1.dto.TaskSuggestionDto;
+import com.exo1.exo1.entity.Projet;
 import com.exo1.exo1.entity.Task;
 import com.exo1.exo1.mapper.TaskMapper;
 import com.exo1.exo1.repository.TaskRepository;
+import com.exo1.exo1.repository.UserRepository;
 import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.webjars.NotFoundException;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class TaskService {
     private TaskRepository taskRepository;
     private TaskMapper taskMapper;
+    private CacheInvalidator cacheInvalidator;
+    private TaskTitleIndex taskTitleIndex;
+    private CacheManager cacheManager;
+    private UserRepository userRepository;
 
     /**
-     * Récupère toutes les tâches sous forme paginée.
+     * Récupère toutes les tâches sous forme paginée, triées par identifiant.
      * Utilise la pagination pour limiter le nombre de résultats retournés.
      *
      * @param pageable objet contenant les informations de pagination (page et taille).
      * @return une liste paginée de tâches sous forme de DTO.
      */
     @Cacheable("tasks")
+    @Transactional(readOnly = true)
     public List<TaskDto> findAll(Pageable pageable) {
-        return taskMapper.toDtos(taskRepository.findAll(pageable).getContent());
+        Pageable byId = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return taskMapper.toDtos(taskRepository.findAll(byId).getContent());
+    }
+
+    /**
+     * Récupère les tâches suivant un identifiant donné (pagination par curseur).
+     * La requête parcourt l'index de la clé primaire à partir du curseur : le coût ne dépend pas
+     * de la profondeur de la page, contrairement à un OFFSET.
+     *
+     * @param afterId l'identifiant de la dernière tâche déjà reçue (0 pour commencer).
+     * @param size le nombre maximal de tâches à retourner.
+     * @return les tâches d'identifiant supérieur à afterId, triées par identifiant.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDto> findAfter(long afterId, int size) {
+        return taskMapper.toDtos(taskRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size)));
     }
 
     /**
@@ -39,10 +74,23 @@ public class TaskService {
      * @return une liste de TaskDto dont le titre correspond.
      */
     @Cacheable(value = "tasksByTitle", key = "#title")
+    @Transactional(readOnly = true)
     public List<TaskDto> findByTitle(String title) {
         return taskMapper.toDtos(taskRepository.findByTitle(title));
     }
 
+    /**
+     * Propose les titres de tâches commençant par un préfixe, pour l'autocomplétion.
+     * Servi par l'index en mémoire {@link TaskTitleIndex}, sans requête SQL ni entrée de cache par saisie.
+     *
+     * @param prefix le début du titre saisi (sans tenir compte de la casse).
+     * @param limit le nombre maximal de titres proposés.
+     * @return les titres trouvés par ordre alphabétique, avec leurs tâches.
+     */
+    public List<TaskSuggestionDto> suggest(String prefix, int limit) {
+        return taskTitleIndex.suggest(prefix, limit);
+    }
+
     /**
      * Récupère une tâche spécifique par son ID.
      * Si la tâche est trouvée, elle est convertie en DTO ; sinon, retourne null.
@@ -51,48 +99,234 @@ public class TaskService {
      * @return le TaskDto correspondant ou null si la tâche n'existe pas.
      */
     @Cacheable(value = "taskById", key = "#id")
+    @Transactional(readOnly = true)
     public TaskDto findById(long id) {
         return taskMapper.toDto(taskRepository.findById(id).orElse(null));
     }
 
+    /**
+     * ETag de la représentation de la tâche ({@link EntityTags}).
+     * Calculé depuis la tâche en cache si elle y est, sinon depuis sa seule version en base, sans la charger.
+     *
+     * @param id l'identifiant de la tâche.
+     * @return l'ETag, ou null si la tâche n'existe pas.
+     */
+    public String etag(long id) {
+        Cache cache = cacheManager.getCache("taskById");
+        TaskDto cached = cache == null ? null : cache.get(id, TaskDto.class);
+        return cached != null ? EntityTags.of(cached) : storedEtag(id);
+    }
+
     /**
      * Sauvegarde une nouvelle tâche dans la base de données.
      * Convertit d'abord le TaskDto en entité avant de le sauvegarder.
-     * Invalide le cache après la création d'une nouvelle tâche.
+     * Met la tâche en cache par identifiant et n'invalide que les entrées touchées :
+     * la recherche par son titre, les pages à partir de son identifiant et les pages incomplètes,
+     * ainsi que son projet et les utilisateurs de ce projet.
      *
      * @param taskDto les informations de la tâche à sauvegarder.
      * @return le TaskDto de la tâche nouvellement créée.
      */
-    @CacheEvict(value = {"tasks", "tasksByTitle", "taskById"}, allEntries = true)
+    @Transactional
+    @CachePut(value = "taskById", key = "#result.id")
     public TaskDto save(TaskDto taskDto) {
-        return taskMapper.toDto(taskRepository.save(taskMapper.toEntity(taskDto)));
+        Task entity = taskRepository.save(taskMapper.toEntity(taskDto));
+        TaskDto saved = taskMapper.toDto(entity);
+        TransactionCallbacks.afterCommit(() -> taskTitleIndex.add(saved.getId(), saved.getTitle()));
+        cacheInvalidator.evictElsewhere("taskById", saved.getId());
+        cacheInvalidator.evict("tasksByTitle", saved.getTitle());
+        cacheInvalidator.evictPagesFrom("tasks", saved.getId());
+        evictParents(projetIdsOf(List.of(entity)));
+        return saved;
+    }
+
+    /**
+     * Sauvegarde une liste de tâches en une seule transaction.
+     * Les identifiants étant alloués par blocs depuis la séquence, Hibernate envoie les insertions
+     * en batch JDBC au lieu d'un aller-retour par ligne.
+     * Invalide les titres concernés, et les pages une seule fois pour tout le lot, à partir du plus petit identifiant,
+     * ainsi que les projets des tâches et leurs utilisateurs.
+     *
+     * @param taskDtos les tâches à sauvegarder.
+     * @return la liste des TaskDto nouvellement créés.
+     */
+    @Transactional
+    public List<TaskDto> saveAll(List<TaskDto> taskDtos) {
+        List<Task> entities = taskRepository.saveAll(taskMapper.toEntities(taskDtos));
+        List<TaskDto> saved = taskMapper.toDtos(entities);
+        TransactionCallbacks.afterCommit(() -> saved.forEach(task -> taskTitleIndex.add(task.getId(), task.getTitle())));
+        saved.forEach(task -> cacheInvalidator.evict("tasksByTitle", task.getTitle()));
+        saved.stream().map(TaskDto::getId).min(Long::compare)
+                .ifPresent(id -> cacheInvalidator.evictPagesFrom("tasks", id));
+        evictParents(projetIdsOf(entities));
+        return saved;
     }
 
     /**
      * Met à jour une tâche existante avec les nouvelles informations.
      * Si la tâche n'existe pas, lève une exception NotFoundException.
-     * Invalide le cache après la mise à jour de la tâche.
+     * Si {@code ifMatch} est renseigné et ne correspond plus à l'ETag de la tâche, lève une
+     * PreconditionFailedException ; une écriture concurrente est de plus détectée par la version.
+     * Remplace l'entrée en cache de la tâche et n'invalide que l'ancien et le nouveau titre,
+     * les pages qui la contiennent, son projet et les utilisateurs de ce projet.
      *
      * @param id l'identifiant de la tâche à mettre à jour.
      * @param taskDto les nouvelles informations de la tâche.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
      * @return le TaskDto de la tâche mise à jour.
      */
-    @CacheEvict(value = {"tasks", "tasksByTitle", "taskById"}, allEntries = true)
-    public TaskDto update(Long id, TaskDto taskDto) {
+    @Transactional
+    @CachePut(value = "taskById", key = "#id")
+    public TaskDto update(Long id, TaskDto taskDto, String ifMatch) {
         Task existingTask = taskRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Task not found with id " + id));
-        taskDto.setId(existingTask.getId());
-        return taskMapper.toDto(taskRepository.save(taskMapper.toEntity(taskDto)));
+        checkPrecondition(id, ifMatch);
+        String oldTitle = existingTask.getTitle();
+        existingTask.setTitle(taskDto.getTitle());
+        existingTask.setStatus(taskDto.getStatus());
+        Task saved = taskRepository.save(existingTask);
+        // Écrit la modification pour que la version renvoyée (et mise en cache) soit la nouvelle
+        taskRepository.flush();
+        TaskDto updated = taskMapper.toDto(saved);
+        TransactionCallbacks.afterCommit(() -> {
+            taskTitleIndex.remove(id, oldTitle);
+            taskTitleIndex.add(id, updated.getTitle());
+        });
+        cacheInvalidator.evictElsewhere("taskById", id);
+        cacheInvalidator.evict("tasksByTitle", oldTitle);
+        cacheInvalidator.evict("tasksByTitle", updated.getTitle());
+        cacheInvalidator.evictPagesContaining("tasks", id);
+        evictParents(projetIdsOf(List.of(existingTask)));
+        return updated;
+    }
+
+    /**
+     * Change le statut d'une tâche en une seule instruction {@code UPDATE}, sans la charger, la convertir
+     * ni la fusionner (pas de cascade vers le projet et l'utilisateur). La version est incrémentée.
+     * Si {@code ifMatch} est renseigné, la tâche n'est modifiée que si elle a encore la version correspondante,
+     * sinon une PreconditionFailedException est levée.
+     * Remplace l'entrée en cache de la tâche et n'invalide que son titre, les pages qui la contiennent, son projet
+     * et les utilisateurs de ce projet.
+     *
+     * @param id l'identifiant de la tâche.
+     * @param status le nouveau statut.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
+     * @return le TaskDto de la tâche modifiée.
+     */
+    @Transactional
+    @CachePut(value = "taskById", key = "#id")
+    public TaskDto updateStatus(Long id, String status, String ifMatch) {
+        Long expectedVersion = checkPrecondition(id, ifMatch);
+        TaskRepository.StatusChange change = taskRepository.updateStatus(id, status, expectedVersion).stream().findFirst()
+                .orElseThrow(() -> expectedVersion != null
+                        ? new PreconditionFailedException("Task " + id + " has changed since " + ifMatch)
+                        : new NotFoundException("Task not found with id " + id));
+        cacheInvalidator.evictElsewhere("taskById", id);
+        evictStatusChanges(List.of(change));
+        return new TaskDto(change.getId(), change.getTitle(), change.getStatus(), change.getVersion());
+    }
+
+    /**
+     * Change en une instruction ensembliste le statut de toutes les tâches vérifiant les critères
+     * (projet, statut actuel, identifiants ; un critère null est ignoré). Les tâches ayant déjà ce statut
+     * ne sont pas réécrites. N'invalide que les entrées des tâches modifiées, de leurs titres, des pages
+     * qui les contiennent, de leurs projets et des utilisateurs de ces projets.
+     *
+     * @param update le nouveau statut et les critères de sélection.
+     * @return le nombre de tâches modifiées.
+     */
+    @Transactional
+    public int updateStatuses(TaskStatusUpdateDto update) {
+        Long[] ids = update.getIds() == null ? null : update.getIds().toArray(Long[]::new);
+        List<TaskRepository.StatusChange> changes = taskRepository.updateStatuses(update.getStatus(),
+                update.getProjetId(), update.getCurrentStatus(), ids);
+        changes.forEach(change -> cacheInvalidator.evict("taskById", change.getId()));
+        evictStatusChanges(changes);
+        return changes.size();
     }
 
     /**
      * Supprime une tâche par son identifiant.
-     * Invalide le cache après la suppression de la tâche.
+     * Si {@code ifMatch} est renseigné et ne correspond plus à l'ETag de la tâche, lève une PreconditionFailedException.
+     * N'invalide que l'entrée de la tâche, son titre, les pages à partir de sa position
+     * (les suivantes sont décalées), son projet et les utilisateurs de ce projet.
      *
      * @param id l'identifiant de la tâche à supprimer.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
+     */
+    @Transactional
+    public void delete(Long id, String ifMatch) {
+        taskRepository.findById(id).ifPresent(task -> {
+            checkPrecondition(id, ifMatch);
+            taskRepository.delete(task);
+            TransactionCallbacks.afterCommit(() -> taskTitleIndex.remove(id, task.getTitle()));
+            cacheInvalidator.evict("taskById", id);
+            cacheInvalidator.evict("tasksByTitle", task.getTitle());
+            cacheInvalidator.evictPagesFrom("tasks", id);
+            evictParents(projetIdsOf(List.of(task)));
+        });
+    }
+
+    private String storedEtag(long id) {
+        return taskRepository.findVersionById(id).map(version -> EntityTags.builder().task(id, version).build())
+                .orElse(null);
+    }
+
+    /**
+     * Compare If-Match à l'ETag en base (et non en cache). En cas d'échec, la tâche est retirée du cache
+     * pour que le client relise l'état actuel.
+     *
+     * @return la version correspondant à If-Match, ou null sans If-Match.
+     */
+    private Long checkPrecondition(long id, String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        Long version = taskRepository.findVersionById(id).orElse(null);
+        if (version == null || !EntityTags.matchesStrongly(ifMatch, EntityTags.builder().task(id, version).build())) {
+            cacheInvalidator.evict("taskById", id);
+            throw new PreconditionFailedException("Task " + id + " has changed since " + ifMatch);
+        }
+        return version;
+    }
+
+    /**
+     * Invalide ce qui contient les tâches modifiées par un changement de statut hors entités :
+     * les tâches elles-mêmes dans le cache de second niveau, recherches par titre, pages, projets et utilisateurs
+     * (leur représentation inclut les tâches et leurs versions).
      */
-    @CacheEvict(value = {"tasks", "tasksByTitle", "taskById"}, allEntries = true)
-    public void delete(Long id) {
-        taskRepository.deleteById(id);
+    private void evictStatusChanges(List<TaskRepository.StatusChange> changes) {
+        Set<Long> ids = new HashSet<>();
+        Set<Long> projetIds = new HashSet<>();
+        for (TaskRepository.StatusChange change : changes) {
+            ids.add(change.getId());
+            cacheInvalidator.evictEntity(Task.class, change.getId());
+            cacheInvalidator.evict("tasksByTitle", change.getTitle());
+            if (change.getProjetId() != null) {
+                projetIds.add(change.getProjetId());
+            }
+        }
+        cacheInvalidator.evictPagesContaining("tasks", ids);
+        evictParents(projetIds);
+    }
+
+    /**
+     * Invalide les représentations qui incluent les tâches de ces projets : les projets, les utilisateurs liés
+     * à ces projets et les pages d'utilisateurs qui les contiennent. Leur ETag, calculé depuis le cache
+     * quand ils y sont, suit ainsi les versions des tâches.
+     */
+    private void evictParents(Set<Long> projetIds) {
+        if (projetIds.isEmpty()) {
+            return;
+        }
+        projetIds.forEach(projetId -> cacheInvalidator.evict("projetsById", projetId));
+        Set<Long> userIds = new HashSet<>(userRepository.findIdsByProjetIdIn(projetIds));
+        userIds.forEach(userId -> cacheInvalidator.evict("userById", userId));
+        cacheInvalidator.evictPagesContaining("usersByPage", userIds);
+    }
+
+    private static Set<Long> projetIdsOf(Collection<Task> tasks) {
+        return tasks.stream().map(Task::getProjet).filter(Objects::nonNull).map(Projet::getId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
     }
 }
@@ -0,0 +1,177 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.dto.TaskSuggestionDto;
+import com.exo1.exo1.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Index en mémoire des titres de tâches pour l'autocomplétion ({@code GET /tasks/suggest}).
+ * Les titres sont triés sans tenir compte de la casse (puis à l'identique, pour distinguer « Test » de « test »)
+ * dans une {@link ConcurrentSkipListMap} : les titres commençant par un préfixe sont contigus et une recherche
+ * ne parcourt que les entrées renvoyées. Chaque titre est associé aux identifiants triés de ses tâches,
+ * remplacés (copie) à chaque écriture. Le titre lui-même sert de clé, sans copie normalisée.
+ * <p>
+ * L'index est chargé au démarrage par une requête en flux, puis tenu à jour par {@link TaskService}.
+ * Les tâches écrites sans passer par le service (cascade depuis un projet ou un utilisateur, SQL direct)
+ * n'y figurent qu'après le rechargement suivant {@link #load()}, déclenché notamment par l'import en masse.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskTitleIndex {
+
+    static final int IDS_PER_SUGGESTION = 10;
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final TaskRepository taskRepository;
+
+    private volatile ConcurrentSkipListMap<String, long[]> titles = new ConcurrentSkipListMap<>(ORDER);
+    private volatile Loading loading;
+
+    /**
+     * (Re)charge l'index depuis la base dans une nouvelle table, qui remplace l'ancienne une fois complète.
+     * Les écritures concurrentes sont appliquées aux deux tables ; les suppressions survenues pendant le chargement
+     * sont mémorisées pour ne pas réintroduire une ligne lue avant d'être supprimée.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        long start = System.nanoTime();
+        Loading current = new Loading(new ConcurrentSkipListMap<>(ORDER), ConcurrentHashMap.newKeySet());
+        loading = current;
+        try (Stream<TaskRepository.TaskTitle> rows = taskRepository.streamTitles()) {
+            rows.forEach(row -> {
+                if (!current.removed().contains(new Removal(row.getId(), row.getTitle()))) {
+                    add(current.titles(), row.getId(), row.getTitle());
+                }
+            });
+            titles = current.titles();
+        } finally {
+            loading = null;
+        }
+        log.info("Index des titres de tâches : {} titres chargés en {} ms", titles.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Ajoute une tâche à l'index. Sans effet si le titre est nul.
+     *
+     * @param id l'identifiant de la tâche.
+     * @param title son titre.
+     */
+    public void add(Long id, String title) {
+        if (id == null || title == null) {
+            return;
+        }
+        Loading current = loading;
+        add(titles, id, title);
+        if (current != null) {
+            add(current.titles(), id, title);
+        }
+    }
+
+    /**
+     * Retire une tâche de l'index, par exemple avant de l'ajouter sous un nouveau titre.
+     *
+     * @param id l'identifiant de la tâche.
+     * @param title le titre sous lequel elle est indexée.
+     */
+    public void remove(Long id, String title) {
+        if (id == null || title == null) {
+            return;
+        }
+        Loading current = loading;
+        remove(titles, id, title);
+        if (current != null) {
+            current.removed().add(new Removal(id, title));
+            remove(current.titles(), id, title);
+        }
+    }
+
+    /**
+     * Titres commençant par le préfixe (sans tenir compte de la casse), par ordre alphabétique.
+     *
+     * @param prefix le début du titre saisi.
+     * @param limit le nombre maximal de titres.
+     * @return les titres trouvés, avec le nombre de tâches et leurs premiers identifiants.
+     */
+    public List<TaskSuggestionDto> suggest(String prefix, int limit) {
+        ConcurrentSkipListMap<String, long[]> current = titles;
+        // Les titres égaux au préfixe à la casse près peuvent être rangés juste avant lui
+        String from = prefix;
+        for (String lower = current.lowerKey(from); lower != null && lower.equalsIgnoreCase(prefix);
+             lower = current.lowerKey(from)) {
+            from = lower;
+        }
+        List<TaskSuggestionDto> suggestions = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : current.tailMap(from).entrySet()) {
+            String title = entry.getKey();
+            if (suggestions.size() >= limit || !title.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            long[] ids = entry.getValue();
+            suggestions.add(new TaskSuggestionDto(title, ids.length,
+                    Arrays.stream(ids, 0, Math.min(ids.length, IDS_PER_SUGGESTION)).boxed().toList()));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return le nombre de titres distincts indexés.
+     */
+    public int size() {
+        return titles.size();
+    }
+
+    private static void add(ConcurrentSkipListMap<String, long[]> titles, long id, String title) {
+        titles.merge(title, new long[]{id}, (ids, added) -> {
+            int position = Arrays.binarySearch(ids, id);
+            if (position >= 0) {
+                return ids;
+            }
+            int insertion = -position - 1;
+            long[] copy = new long[ids.length + 1];
+            System.arraycopy(ids, 0, copy, 0, insertion);
+            copy[insertion] = id;
+            System.arraycopy(ids, insertion, copy, insertion + 1, ids.length - insertion);
+            return copy;
+        });
+    }
+
+    private static void remove(ConcurrentSkipListMap<String, long[]> titles, long id, String title) {
+        titles.computeIfPresent(title, (key, ids) -> {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] copy = new long[ids.length - 1];
+            System.arraycopy(ids, 0, copy, 0, position);
+            System.arraycopy(ids, position + 1, copy, position, copy.length - position);
+            return copy;
+        });
+    }
+
+    private record Removal(long id, String title) {
+    }
+
+    private record Loading(ConcurrentSkipListMap<String, long[]> titles, Set<Removal> removed) {
+    }
+}
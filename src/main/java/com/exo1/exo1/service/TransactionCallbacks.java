@@ -0,0 +1,54 @@
+package com.exo1.exo1.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Actions différées à la fin de la transaction en cours, exécutées immédiatement hors transaction.
+ * Les structures en mémoire (caches, index) ne doivent refléter une écriture qu'une fois celle-ci visible
+ * des autres transactions : appliquée avant le commit, une invalidation laisse un lecteur concurrent remettre
+ * en cache la ligne non encore modifiée, et un ajout à un index survit à un rollback.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Exécute l'action après le commit de la transaction en cours ; elle est abandonnée en cas de rollback.
+     *
+     * @param action l'action, par exemple la mise à jour d'un index en mémoire.
+     */
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Exécute l'action à la fin de la transaction en cours, qu'elle soit validée ou annulée.
+     * Convient aux invalidations : retirer une entrée à jour ne coûte qu'un rechargement, et une invalidation
+     * décidée dans une transaction annulée (précondition échouée) doit quand même avoir lieu.
+     *
+     * @param action l'action, par exemple le retrait d'entrées de cache.
+     */
+    static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
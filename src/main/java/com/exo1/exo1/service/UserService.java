@@ -1,59 +1,98 @@
 package com.exo1.exo1.service;
 
+import com.exo1.exo1.dto.ProjetDto;
 import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
 import com.exo1.exo1.entity.User;
 import com.exo1.exo1.mapper.UserMapper;
-import com.exo1.exo1.repository.ProjetRepository;
-import com.exo1.exo1.repository.TaskRepository;
 import com.exo1.exo1.repository.UserRepository;
 import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.webjars.NotFoundException;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class UserService {
     private UserRepository userRepository;
-    private TaskRepository taskRepository;
-    private ProjetRepository projetRepository;
+    private AssociationReconciler associationReconciler;
     private UserMapper userMapper;
+    private CacheInvalidator cacheInvalidator;
+    private CacheManager cacheManager;
 
     /**
-     * Récupère tous les utilisateurs de manière paginée.
+     * Récupère tous les utilisateurs de manière paginée, triés par identifiant.
+     * Charge d'abord les identifiants de la page, puis les utilisateurs avec leurs projets et leurs tâches
+     * en une seule requête, soit deux requêtes quelle que soit la taille de la page.
      * Utilise le cache pour stocker les résultats.
      * @param pageable objet de pagination contenant le numéro de page et la taille de page.
      * @return la liste paginée des utilisateurs sous forme de UserDto.
      */
     @Cacheable("usersByPage")
+    @Transactional(readOnly = true)
     public List<UserDto> findAll(Pageable pageable) {
-        return userRepository.findAll(pageable).map(userMapper::toDto).getContent();
+        return userMapper.toDtos(findAllWithProjets(userRepository.findPageIds(pageable)));
     }
 
     /**
-     * Récupère un utilisateur spécifique par son ID.
+     * Récupère les utilisateurs suivant un identifiant donné (pagination par curseur).
+     * Le coût reste constant quelle que soit la profondeur de la page.
+     * @param afterId l'identifiant du dernier utilisateur déjà reçu (0 pour commencer).
+     * @param size le nombre maximal d'utilisateurs à retourner.
+     * @return les utilisateurs d'identifiant supérieur à afterId, triés par identifiant.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDto> findAfter(long afterId, int size) {
+        return userMapper.toDtos(findAllWithProjets(userRepository.findIdsAfter(afterId, Limit.of(size))));
+    }
+
+    /**
+     * Récupère un utilisateur spécifique par son ID, avec ses projets et leurs tâches en une requête.
      * Cette méthode est mise en cache pour optimiser les performances.
      * @param id l'identifiant de l'utilisateur.
      * @return le UserDto correspondant ou null si non trouvé.
      */
     @Cacheable(value = "userById", key = "#id")
+    @Transactional(readOnly = true)
     public UserDto findById(long id) {
-        return userMapper.toDto(userRepository.findByIdWithTask(id).orElse(null));
+        return userMapper.toDto(userRepository.findAllWithProjetsByIdIn(List.of(id)).stream().findFirst().orElse(null));
+    }
+
+    /**
+     * ETag de la représentation de l'utilisateur, de ses projets et de leurs tâches ({@link EntityTags}).
+     * Calculé depuis l'utilisateur en cache s'il y est, sinon depuis les seules versions en base.
+     * @param id l'identifiant de l'utilisateur.
+     * @return l'ETag, ou null si l'utilisateur n'existe pas.
+     */
+    public String etag(long id) {
+        Cache cache = cacheManager.getCache("userById");
+        UserDto cached = cache == null ? null : cache.get(id, UserDto.class);
+        return cached != null ? EntityTags.of(cached) : storedEtag(id);
     }
 
     /**
      * Sauvegarde un nouvel utilisateur avec les informations fournies dans UserDto.
-     * Invalide le cache après la sauvegarde.
+     * Met l'utilisateur en cache par identifiant et n'invalide que les pages à partir de son identifiant
+     * et les pages incomplètes.
      * @param userDto les informations de l'utilisateur à sauvegarder.
      * @return le UserDto de l'utilisateur nouvellement créé.
      */
-    @CacheEvict(value = {"usersByPage", "userById"}, allEntries = true)
+    @Transactional
+    @CachePut(value = "userById", key = "#result.id")
     public UserDto save(UserDto userDto) {
         User user = userMapper.toEntity(userDto);
 
@@ -68,44 +107,101 @@ public class UserService {
             projet.getTasks().forEach(task -> task.setProjet(projet));
         });
 
-        return userMapper.toDto(userRepository.save(user));
+        UserDto saved = userMapper.toDto(userRepository.save(user));
+        cacheInvalidator.evictElsewhere("userById", saved.getId());
+        cacheInvalidator.evictPagesFrom("usersByPage", saved.getId());
+        return saved;
     }
 
     /**
      * Met à jour un utilisateur existant avec les nouvelles informations fournies.
-     * Invalide le cache après la mise à jour.
+     * L'utilisateur et ses projets, les projets reçus (avec leurs tâches) et les tâches reçues sont chargés
+     * en trois requêtes, puis modifiés en place : les liens utilisateur-projet sont réconciliés par différence
+     * (seuls les liens ajoutés ou retirés sont écrits) et Hibernate n'écrit que les lignes changées.
+     * Sans liste de projets, les liens de l'utilisateur sont conservés.
+     * Si {@code ifMatch} est renseigné et ne correspond plus à l'ETag de l'utilisateur, lève une
+     * PreconditionFailedException.
+     * Remplace l'entrée en cache de l'utilisateur et n'invalide que les pages qui le contiennent.
      * @param id l'ID de l'utilisateur à mettre à jour.
      * @param userDto les nouvelles informations de l'utilisateur.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
      * @return le UserDto de l'utilisateur mis à jour.
      */
-    @CacheEvict(value = {"usersByPage", "userById"}, allEntries = true)
-    public UserDto update(Long id, UserDto userDto) {
-        User existingUser = userRepository.findById(id)
+    @Transactional
+    @CachePut(value = "userById", key = "#id")
+    public UserDto update(Long id, UserDto userDto, String ifMatch) {
+        User user = userRepository.findByIdWithProjets(id)
                 .orElseThrow(() -> new NotFoundException("User not found with id " + id));
-        userDto.setId(existingUser.getId());
-        User userUpdated = userMapper.toEntity(userDto);
-
-        userUpdated.getProjets().forEach(projet -> {
-            if (projetRepository.findById(projet.getId()).isPresent()) {
-                projet.setUsers(new HashSet<>(Collections.singleton(userUpdated)));
-                projet.getTasks().forEach(task -> {
-                    if (taskRepository.findById(task.getId()).isPresent()) {
-                        task.setProjet(projet);
-                    }
-                });
+        checkPrecondition(id, ifMatch);
+        user.setName(userDto.getName());
+        user.setEmail(userDto.getEmail());
+
+        if (userDto.getProjets() != null) {
+            Map<Long, Projet> projets = associationReconciler.findProjets(userDto.getProjets());
+            Map<Long, Task> tasks = associationReconciler.findTasks(userDto.getProjets());
+            Set<Projet> wanted = new HashSet<>();
+            for (ProjetDto projetDto : userDto.getProjets()) {
+                Projet existing = projetDto.getId() != null ? projets.get(projetDto.getId()) : null;
+                wanted.add(associationReconciler.apply(projetDto, existing, tasks));
             }
-        });
+            // Différence sur le côté propriétaire (users_projet) : DELETE/INSERT des seuls liens changés
+            user.getProjets().retainAll(wanted);
+            user.getProjets().addAll(wanted);
+        }
 
-        return userMapper.toDto(userRepository.save(userUpdated));
+        userRepository.flush();
+        UserDto updated = userMapper.toDto(user);
+        cacheInvalidator.evictElsewhere("userById", id);
+        cacheInvalidator.evictPagesContaining("usersByPage", id);
+        return updated;
     }
 
     /**
      * Supprime un utilisateur de la base de données en fonction de son identifiant.
-     * Invalide le cache après la suppression.
+     * Si {@code ifMatch} est renseigné et ne correspond plus à l'ETag de l'utilisateur, lève une
+     * PreconditionFailedException.
+     * N'invalide que l'entrée de l'utilisateur et les pages à partir de sa position (les suivantes sont décalées).
      * @param id l'identifiant de l'utilisateur à supprimer.
+     * @param ifMatch l'en-tête If-Match de la requête, ou null.
      */
-    @CacheEvict(value = {"usersByPage", "userById"}, allEntries = true)
-    public void delete(Long id) {
+    @Transactional
+    public void delete(Long id, String ifMatch) {
+        checkPrecondition(id, ifMatch);
         userRepository.deleteById(id);
+        cacheInvalidator.evict("userById", id);
+        cacheInvalidator.evictPagesFrom("usersByPage", id);
+    }
+
+    /**
+     * Charge les utilisateurs demandés avec leurs projets et leurs tâches en conservant l'ordre des identifiants.
+     * @param ids les identifiants des utilisateurs, dans l'ordre attendu.
+     * @return les utilisateurs correspondants, dans le même ordre.
+     */
+    private List<User> findAllWithProjets(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = userRepository.findAllWithProjetsByIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream().map(users::get).toList();
+    }
+
+    private String storedEtag(long id) {
+        EntityTags tags = EntityTags.builder();
+        userRepository.findGraphVersions(id).forEach(row -> tags.user(row.getUserId(), row.getUserVersion())
+                .projet(row.getProjetId(), row.getProjetVersion())
+                .task(row.getTaskId(), row.getTaskVersion()));
+        return tags.build();
+    }
+
+    /**
+     * Compare If-Match à l'ETag en base (et non en cache). En cas d'échec, l'utilisateur est retiré du cache
+     * pour que le client relise l'état actuel.
+     */
+    private void checkPrecondition(long id, String ifMatch) {
+        if (ifMatch != null && !EntityTags.matchesStrongly(ifMatch, storedEtag(id))) {
+            cacheInvalidator.evict("userById", id);
+            throw new PreconditionFailedException("User " + id + " has changed since " + ifMatch);
+        }
     }
 }
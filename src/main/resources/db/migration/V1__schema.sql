@@ -0,0 +1,45 @@
+-- Schéma initial, tel que généré par Hibernate à partir des entités (mêmes noms de contraintes et d'index
+-- que ddl-auto=update) : une base existante est rattachée à cette version (spring.flyway.baseline-version=1)
+CREATE SEQUENCE projet_projet_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE task_task_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_users_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE projet (
+    projet_id   BIGINT NOT NULL,
+    version     BIGINT DEFAULT 0 NOT NULL,
+    description VARCHAR(255),
+    name        VARCHAR(255),
+    PRIMARY KEY (projet_id)
+);
+
+CREATE TABLE users (
+    users_id BIGINT NOT NULL,
+    version  BIGINT DEFAULT 0 NOT NULL,
+    email    VARCHAR(255),
+    name     VARCHAR(255),
+    PRIMARY KEY (users_id)
+);
+
+CREATE TABLE task (
+    task_id   BIGINT NOT NULL,
+    projet_id BIGINT,
+    users_id  BIGINT UNIQUE,
+    version   BIGINT DEFAULT 0 NOT NULL,
+    status    VARCHAR(255),
+    title     VARCHAR(255),
+    PRIMARY KEY (task_id)
+);
+
+CREATE TABLE users_projet (
+    projet_id BIGINT NOT NULL,
+    users_id  BIGINT NOT NULL,
+    PRIMARY KEY (projet_id, users_id)
+);
+
+CREATE INDEX idx_projet_name ON projet (name);
+CREATE INDEX idx_task_title ON task (title);
+
+ALTER TABLE task ADD CONSTRAINT FK2gw9fbq3iutchflo46m13r4om FOREIGN KEY (projet_id) REFERENCES projet;
+ALTER TABLE task ADD CONSTRAINT FK266dcc5lf06iwg8qs4nqxxsr FOREIGN KEY (users_id) REFERENCES users;
+ALTER TABLE users_projet ADD CONSTRAINT FKkkr08rn8kn7mkqpu6yjbylmu3 FOREIGN KEY (users_id) REFERENCES users;
+ALTER TABLE users_projet ADD CONSTRAINT FKk6p89us6g5mvq3lr806lp3rxj FOREIGN KEY (projet_id) REFERENCES projet;
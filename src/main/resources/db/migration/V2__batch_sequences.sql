@@ -0,0 +1,6 @@
+-- Passer les séquences des clés primaires en allocation par blocs de 50
+-- (doit correspondre à allocationSize dans les entités Task, Projet et User). Sans effet sur une base
+-- créée par V1 ; rattrape les bases créées par ddl-auto=update avant l'allocation par blocs
+ALTER SEQUENCE task_task_id_seq INCREMENT BY 50;
+ALTER SEQUENCE projet_projet_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_users_id_seq INCREMENT BY 50;
@@ -0,0 +1,32 @@
+-- Remplacer la vue matérialisée projet_task_count par une table maintenue par deltas
+-- (ProjetTaskCountListener), sans REFRESH complet à chaque création de projet.
+-- DROP MATERIALIZED VIEW échoue si projet_task_count est déjà une table (créée par ddl-auto=update)
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_matviews WHERE matviewname = 'projet_task_count') THEN
+        DROP MATERIALIZED VIEW projet_task_count;
+    END IF;
+END
+$$;
+
+CREATE TABLE IF NOT EXISTS projet_task_count (
+    projet_id  BIGINT PRIMARY KEY,
+    name       VARCHAR(255),
+    task_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Initialiser les compteurs à partir des données existantes
+INSERT INTO projet_task_count (projet_id, name, task_count)
+SELECT
+    p.projet_id,
+    p.name,
+    COUNT(t.task_id)
+FROM
+    projet p
+        LEFT JOIN task t ON p.projet_id = t.projet_id
+GROUP BY
+    p.projet_id, p.name
+ON CONFLICT (projet_id) DO UPDATE SET name = EXCLUDED.name, task_count = EXCLUDED.task_count;
+
+-- Index de la clé étrangère task.projet_id : la réconciliation compte les tâches par projet
+CREATE INDEX IF NOT EXISTS idx_task_projet ON task (projet_id);
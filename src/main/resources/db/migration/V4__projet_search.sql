@@ -0,0 +1,6 @@
+-- Recherche par fragment ou approchée sur le nom des projets (GET /projets/search)
+-- Le B-tree idx_projet_name ne sert pas un LIKE '%...%' : l'index GIN trigramme couvre
+-- ILIKE '%...%' et l'opérateur de similarité <% de pg_trgm
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_projet_name_trgm ON projet USING gin (name gin_trgm_ops);
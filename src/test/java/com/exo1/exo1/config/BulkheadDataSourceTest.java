@@ -0,0 +1,52 @@
+package com.exo1.exo1.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie que le bulkhead borne les connexions ouvertes et rend le permis à la fermeture.
+ */
+class BulkheadDataSourceTest {
+
+    @Test
+    void limitsOpenConnectionsAndReleasesOnClose() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 2, 50);
+
+        Connection first = bulkhead.getConnection();
+        Connection second = bulkhead.getConnection();
+        assertThat(bulkhead.getAvailablePermits()).isZero();
+        assertThatThrownBy(bulkhead::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        verify(connection, times(2)).close();
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(1);
+        bulkhead.getConnection().close();
+        second.close();
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void releasesPermitWhenTargetFails() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("refusée"));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 50);
+
+        assertThatThrownBy(bulkhead::getConnection).hasMessage("refusée");
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.exo1.exo1.config;
+
+import com.exo1.exo1.dto.TaskDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'endurance des caches : une charge à clés aléatoires ne doit pas faire croître le tas sans limite.
+ */
+class CacheConfigTest {
+
+    private static final int OPERATIONS = 300_000;
+
+    @Test
+    void randomKeyWorkloadKeepsCachesBounded() {
+        CacheConfig.CacheSpecs specs = new CacheConfig.CacheSpecs();
+        specs.setSpecs(Map.of(
+                "tasks", "maximumWeight=20000,expireAfterWrite=5m",
+                "tasksByTitle", "maximumSize=2000,expireAfterAccess=2m"));
+        CacheManager cacheManager = new CacheConfig().cacheManager(specs);
+        Cache pages = cacheManager.getCache("tasks");
+        Cache titles = cacheManager.getCache("tasksByTitle");
+        Cache undeclared = cacheManager.getCache("projetsByTest");
+
+        long heapBefore = usedHeapAfterGc();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt();
+            pages.put(PageRequest.of(key & 0xFFFF, 10), page(key, 10));
+            titles.put("title-" + key, page(key, 1));
+            undeclared.put("name-" + key, page(key, 1));
+        }
+        cleanUp(pages, titles, undeclared);
+        long heapGrowth = usedHeapAfterGc() - heapBefore;
+
+        assertThat(nativeCache(pages).policy().eviction().orElseThrow().weightedSize().orElseThrow())
+                .isLessThanOrEqualTo(20_000);
+        assertThat(nativeCache(titles).estimatedSize()).isLessThanOrEqualTo(2_000);
+        assertThat(nativeCache(undeclared).estimatedSize()).isLessThanOrEqualTo(1_000);
+        // Sans borne, ~600 000 entrées et 3,6 millions de DTO resteraient en mémoire (plusieurs centaines de Mo)
+        assertThat(heapGrowth).isLessThan(64L * 1024 * 1024);
+    }
+
+    private static List<TaskDto> page(int seed, int size) {
+        List<TaskDto> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(new TaskDto((long) seed + i, "Task " + seed + "-" + i, "TODO", null));
+        }
+        return tasks;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(Cache cache) {
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+
+    private static void cleanUp(Cache... caches) {
+        for (Cache cache : caches) {
+            nativeCache(cache).cleanUp();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
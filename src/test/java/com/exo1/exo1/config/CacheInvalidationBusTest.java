@@ -0,0 +1,165 @@
+package com.exo1.exo1.config;
+
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.service.CacheInvalidation;
+import com.exo1.exo1.service.CacheInvalidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plusieurs instances, chacune avec ses caches et son bus, reliées par un canal simulé qui remet chaque notification
+ * à toutes les instances (y compris l'émettrice), comme PostgreSQL {@code NOTIFY}.
+ */
+class CacheInvalidationBusTest {
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<String> payloads = new ArrayList<>();
+    private boolean networkDown;
+
+    @Test
+    void replaysEvictionsOnOtherNodesOnly() {
+        Node a = node(100);
+        Node b = node(100);
+        Node c = node(100);
+        TaskDto task = new TaskDto(5L, "a", "TODO", 0L);
+        for (Node node : nodes) {
+            node.cache("taskById").put(5L, task);
+            node.cache("tasks").put(PageRequest.of(0, 10), List.of(task));
+            node.cache("tasks").put(PageRequest.of(1, 10), List.of(new TaskDto(15L, "b", "TODO", 0L)));
+        }
+
+        a.invalidator.evict("taskById", 5L);
+        a.invalidator.evictPagesContaining("tasks", 5L);
+
+        assertThat(a.cache("taskById").get(5L)).isNull();
+        assertThat(b.cache("taskById").get(5L)).as("avant l'envoi du lot").isNotNull();
+
+        a.bus.flush();
+
+        for (Node node : List.of(b, c)) {
+            assertThat(node.cache("taskById").get(5L)).isNull();
+            assertThat(node.cache("tasks").get(PageRequest.of(0, 10))).isNull();
+            assertThat(node.cache("tasks").get(PageRequest.of(1, 10))).isNotNull();
+        }
+        assertThat(payloads).hasSize(1);
+    }
+
+    @Test
+    void evictElsewhereKeepsTheLocalEntry() {
+        Node a = node(100);
+        Node b = node(100);
+        TaskDto task = new TaskDto(5L, "a", "DONE", 1L);
+        a.cache("taskById").put(5L, task);
+        b.cache("taskById").put(5L, new TaskDto(5L, "a", "TODO", 0L));
+
+        a.invalidator.evictElsewhere("taskById", 5L);
+        a.bus.flush();
+
+        assertThat(a.cache("taskById").get(5L, TaskDto.class)).isEqualTo(task);
+        assertThat(b.cache("taskById").get(5L)).isNull();
+    }
+
+    @Test
+    void deduplicatesAndSplitsBatchesIntoNotifications() {
+        Node a = node(100_000);
+        Node b = node(100_000);
+        String longTitle = "t".repeat(200);
+        for (int i = 0; i < 1000; i++) {
+            b.cache("tasksByTitle").put(longTitle + i, List.of());
+            a.invalidator.evict("tasksByTitle", longTitle + i);
+            a.invalidator.evictPagesFrom("tasks", 42L);
+        }
+
+        a.bus.flush();
+
+        assertThat(payloads).hasSizeGreaterThan(1)
+                .allSatisfy(payload -> assertThat(payload.getBytes(StandardCharsets.UTF_8).length)
+                        .isLessThanOrEqualTo(CacheInvalidationBus.MAX_PAYLOAD_BYTES));
+        assertThat(String.join("", payloads)).containsOnlyOnce("PAGES_FROM");
+        assertThat(nativeSize(b.cache("tasksByTitle"))).isZero();
+    }
+
+    @Test
+    void keepsPendingInvalidationsWhileTheNetworkIsDown() {
+        Node a = node(100);
+        Node b = node(100);
+        b.cache("taskById").put(5L, new TaskDto(5L, "a", "TODO", 0L));
+        a.invalidator.evict("taskById", 5L);
+
+        networkDown = true;
+        a.bus.flush();
+        assertThat(a.bus.getPending()).isEqualTo(1);
+        assertThat(b.cache("taskById").get(5L)).isNotNull();
+
+        networkDown = false;
+        a.bus.flush();
+        assertThat(a.bus.getPending()).isZero();
+        assertThat(b.cache("taskById").get(5L)).isNull();
+    }
+
+    @Test
+    void clearsAllCachesOfOtherNodesWhenTooManyInvalidationsArePending() {
+        Node a = node(10);
+        Node b = node(10);
+        b.cache("projetsById").put(1L, "projet");
+        for (long id = 0; id < 20; id++) {
+            a.invalidator.evict("taskById", id);
+        }
+
+        a.bus.flush();
+
+        assertThat(payloads).singleElement().asString().contains("CLEAR");
+        assertThat(b.cache("projetsById").get(1L)).isNull();
+    }
+
+    private Node node(int maxPending) {
+        Node node = new Node(maxPending);
+        nodes.add(node);
+        return node;
+    }
+
+    private void deliver(String payload) {
+        if (networkDown) {
+            throw new IllegalStateException("network down");
+        }
+        payloads.add(payload);
+        nodes.forEach(node -> node.bus.receive(payload));
+    }
+
+    private static long nativeSize(Cache cache) {
+        return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).estimatedSize();
+    }
+
+    private final class Node {
+        private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        private final CacheInvalidator invalidator;
+        private final CacheInvalidationBus bus;
+
+        private Node(int maxPending) {
+            invalidator = new CacheInvalidator(cacheManager, this::publish,
+                    new StaticListableBeanFactory().getBeanProvider(EntityManagerFactory.class));
+            bus = new CacheInvalidationBus(invalidator, "cache_invalidation", null, CacheInvalidationBusTest.this::deliver,
+                    Duration.ofMillis(50), Duration.ofSeconds(1), maxPending, new SimpleMeterRegistry());
+        }
+
+        private void publish(Object event) {
+            bus.publish((CacheInvalidation) event);
+        }
+
+        private Cache cache(String name) {
+            return cacheManager.getCache(name);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.exo1.exo1.config;
+
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.service.AssociationReconciler;
+import com.exo1.exo1.service.CacheInvalidator;
+import com.exo1.exo1.service.ProjetService;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le cache de second niveau : régions déclarées et bornées, projet relu sans requête une fois en cache,
+ * liste des tâches d'un projet retirée quand une tâche en part, et entités retirées après une écriture hors Hibernate,
+ * de nouveau à la fin de la transaction si un lecteur concurrent les a remises en cache entre-temps.
+ * Les écritures sont validées (hors transaction de test) : le cache n'est alimenté qu'après validation.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProjetService.class, ProjetMapperImpl.class, TaskMapperImpl.class, CacheInvalidator.class,
+        AssociationReconciler.class, EntityCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheConfigTest {
+
+    @Autowired
+    private ProjetService projetService;
+
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private CacheManager entityCacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.execute("DELETE FROM task; DELETE FROM projet"));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void declaresBoundedRegions() {
+        assertThat(entityCacheManager.getCacheNames())
+                .containsExactlyInAnyOrder("task", "projet", "user", "projetTasks", "userProjets");
+        CaffeineConfiguration<Object, Object> tasks = entityCacheManager.getCache("task")
+                .getConfiguration(CaffeineConfiguration.class);
+        assertThat(tasks.getMaximumSize()).hasValue(20_000);
+        assertThat(tasks.isStoreByValue()).isFalse();
+    }
+
+    @Test
+    void readsCachedProjetWithoutStatements() {
+        ProjetDto saved = projetService.save(projet("A", "a1", "a2"));
+        entityManagerFactory.getCache().evictAll();
+
+        statistics.clear();
+        assertThat(projetService.findById(saved.getId()).getTasks()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(projetService.findById(saved.getId()).getTasks()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(4);
+    }
+
+    @Test
+    void evictsProjetTasksWhenATaskMoves() {
+        ProjetDto source = projetService.save(projet("Source", "s1", "s2"));
+        ProjetDto target = projetService.save(projet("Cible"));
+        projetService.findById(source.getId());
+        projetService.findById(target.getId());
+
+        TaskDto moved = source.getTasks().get(0);
+        projetService.update(target.getId(), new ProjetDto(null, "Cible", null, List.of(moved), null), null);
+
+        assertThat(projetService.findById(source.getId()).getTasks()).extracting(TaskDto::getId)
+                .doesNotContain(moved.getId()).hasSize(1);
+        assertThat(projetService.findById(target.getId()).getTasks()).extracting(TaskDto::getId)
+                .containsExactly(moved.getId());
+    }
+
+    @Test
+    void evictsEntitiesWrittenOutsideHibernate() {
+        ProjetDto saved = projetService.save(projet("Importé", "i1"));
+        projetService.findById(saved.getId());
+        Long taskId = saved.getTasks().get(0).getId();
+        assertThat(entityManagerFactory.getCache().contains(Task.class, taskId)).isTrue();
+
+        cacheInvalidator.evictEntity(Task.class, taskId);
+        assertThat(entityManagerFactory.getCache().contains(Task.class, taskId)).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Projet.class, saved.getId())).isTrue();
+
+        cacheInvalidator.clearAll();
+        assertThat(entityManagerFactory.getCache().contains(Projet.class, saved.getId())).isFalse();
+    }
+
+    @Test
+    void evictsAgainAfterCompletionWhenAReaderReloadsBeforeCommit() {
+        ProjetDto saved = projetService.save(projet("Importé", "i1"));
+        Long taskId = saved.getTasks().get(0).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cacheInvalidator.evictEntity(Task.class, taskId);
+            // Une autre requête relit la tâche avant le commit et la remet en cache
+            CompletableFuture.runAsync(() -> projetService.findById(saved.getId())).join();
+            assertThat(entityManagerFactory.getCache().contains(Task.class, taskId)).isTrue();
+        });
+
+        assertThat(entityManagerFactory.getCache().contains(Task.class, taskId)).isFalse();
+    }
+
+    private static ProjetDto projet(String name, String... titles) {
+        return new ProjetDto(null, name, null,
+                Arrays.stream(titles).map(title -> new TaskDto(null, title, "TODO", null)).toList(), null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.exo1.exo1.config;
+
+import com.exo1.exo1.controller.TaskController;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.monitoring.InFlightRequests;
+import com.exo1.exo1.monitoring.SqlStatsFilter;
+import com.exo1.exo1.service.ExportService;
+import com.exo1.exo1.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la négociation du format de réponse : JSON par défaut, CBOR et Smile sur demande.
+ */
+@WebMvcTest(controllers = TaskController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {SqlStatsFilter.class, InFlightRequests.class}))
+@Import(MessageFormatsConfig.class)
+class MessageFormatsConfigTest {
+
+    private static final TaskDto TASK = new TaskDto(1L, "Rédiger", "TODO", 3L);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        when(taskService.findById(1L)).thenReturn(TASK);
+    }
+
+    @Test
+    void jsonStaysTheDefaultFormat() throws Exception {
+        mockMvc.perform(get("/tasks/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void binaryFormatsAreNegotiated() throws Exception {
+        assertThat(fetch("application/cbor", new CBORMapper())).isEqualTo(TASK);
+        assertThat(fetch("application/x-jackson-smile", new SmileMapper())).isEqualTo(TASK);
+    }
+
+    private TaskDto fetch(String mediaType, ObjectMapper mapper) throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks/1").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn();
+        return mapper.readValue(result.getResponse().getContentAsByteArray(), TaskDto.class);
+    }
+}
@@ -0,0 +1,153 @@
+package com.exo1.exo1.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le routage sur deux bases H2 distinctes, « primaire » et « réplica » : lectures seules sur le réplica,
+ * écritures et lectures forcées sur le primaire, repli sur le primaire quand le réplica est indisponible.
+ * Vérifie aussi que le cookie posé par une écriture garde les lectures du client sur le primaire, quelle que soit
+ * l'instance qui les reçoit.
+ */
+class ReplicaRoutingTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRouting routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        route("");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRouting.clearPrimaryRequired();
+        routing.close();
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToAvailableReplicas() {
+        assertThat(server(readOnly)).as("avant la première vérification").isEqualTo("primary");
+
+        routing.checkReplicas();
+
+        assertThat(server(readOnly)).isEqualTo("replica-1");
+        assertThat(server(readWrite)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+        assertThat(routing.getReplicas().get(0).getConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsReadsOnPrimaryWhenRequired() {
+        routing.checkReplicas();
+
+        ReplicaRouting.requirePrimary();
+        assertThat(server(readOnly)).isEqualTo("primary");
+        ReplicaRouting.clearPrimaryRequired();
+        assertThat(server(readOnly)).isEqualTo("replica-1");
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaIsDown() {
+        routing.checkReplicas();
+        replica.close();
+
+        assertThat(server(readOnly)).isEqualTo("primary");
+        assertThat(routing.getReplicas().get(0).isAvailable()).isFalse();
+
+        routing.checkReplicas();
+        assertThat(routing.getReplicas().get(0).isAvailable()).isFalse();
+        assertThat(routing.getReplicas().get(0).getError()).isNotNull();
+    }
+
+    @Test
+    void excludesLaggingReplicas() {
+        routing.close();
+        route("SELECT 30");
+
+        routing.checkReplicas();
+
+        assertThat(routing.getReplicas().get(0).getLagSeconds()).isEqualTo(30);
+        assertThat(server(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void writeCookieKeepsReadsOnPrimaryOnAnyInstance() throws Exception {
+        routing.checkReplicas();
+        ReplicaRoutingConfig.ReplicaProperties properties = new ReplicaRoutingConfig.ReplicaProperties();
+        OncePerRequestFilter nodeA = new ReplicaRoutingConfig().replicaStickinessFilter(properties);
+        OncePerRequestFilter nodeB = new ReplicaRoutingConfig().replicaStickinessFilter(properties);
+
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        nodeA.doFilter(new MockHttpServletRequest("PUT", "/tasks/1"), written, new MockFilterChain());
+        Cookie sticky = written.getCookie(ReplicaRoutingConfig.STICKY_COOKIE);
+        assertThat(sticky).isNotNull();
+
+        MockHttpServletRequest sameClient = new MockHttpServletRequest("GET", "/tasks/1");
+        sameClient.setCookies(sticky);
+        assertThat(serverFor(nodeB, sameClient)).isEqualTo("primary");
+        assertThat(serverFor(nodeB, new MockHttpServletRequest("GET", "/tasks/1"))).as("autre client").isEqualTo("replica-1");
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/tasks/1");
+        expired.setCookies(new Cookie(ReplicaRoutingConfig.STICKY_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        assertThat(serverFor(nodeB, expired)).isEqualTo("replica-1");
+    }
+
+    /**
+     * Serveur qui sert une lecture seule pendant la requête filtrée.
+     */
+    private String serverFor(OncePerRequestFilter filter, MockHttpServletRequest request) throws Exception {
+        String[] server = new String[1];
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> server[0] = server(readOnly));
+        return server[0];
+    }
+
+    private void route(String lagQuery) {
+        primary = pool("primary");
+        replica = pool("replica-1");
+        routing = new ReplicaRouting(primary, List.of(replica), Duration.ofSeconds(10), lagQuery);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing.dataSource());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    private String server(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    /**
+     * Base H2 en mémoire propre au pool, dont la table {@code node} contient le nom du serveur.
+     */
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        pool.setConnectionTimeout(250);
+        new JdbcTemplate(pool).execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20));"
+                + "DELETE FROM node; INSERT INTO node VALUES ('" + name + "')");
+        return pool;
+    }
+}
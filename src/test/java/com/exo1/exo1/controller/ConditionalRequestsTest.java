@@ -0,0 +1,152 @@
+package com.exo1.exo1.controller;
+
+import com.exo1.exo1.config.CacheConfig;
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.entity.User;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.mapper.UserMapperImpl;
+import com.exo1.exo1.repository.UserRepository;
+import com.exo1.exo1.service.AssociationReconciler;
+import com.exo1.exo1.service.CacheInvalidator;
+import com.exo1.exo1.service.EntityTags;
+import com.exo1.exo1.service.ProjetService;
+import com.exo1.exo1.service.TaskService;
+import com.exo1.exo1.service.TaskTitleIndex;
+import com.exo1.exo1.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie les GET conditionnels sur un projet et un utilisateur en cache : la modification d'une de leurs tâches
+ * change leur ETag, et l'ancien ETag n'obtient plus de 304, même si un lecteur concurrent a remis le projet en cache
+ * avant le commit. Les écritures sont validées (pas de transaction de test).
+ */
+@DataJpaTest
+@Import({TaskService.class, ProjetService.class, UserService.class, TaskMapperImpl.class, ProjetMapperImpl.class,
+        UserMapperImpl.class, CacheInvalidator.class, AssociationReconciler.class, TaskTitleIndex.class,
+        CacheConfig.class, EntityCacheConfig.class, ConditionalRequestsTest.CachingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalRequestsTest {
+
+    @TestConfiguration
+    @EnableCaching
+    static class CachingConfig {
+    }
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjetService projetService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Projet projet;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            projet = new Projet();
+            projet.setName("Versionné");
+            task = new Task();
+            task.setTitle("Tâche");
+            task.setProjet(projet);
+            projet.getTasks().add(task);
+            user = new User();
+            user.setName("Utilisateur");
+            user.getProjets().add(projet);
+            user = userRepository.save(user);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users_projet");
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM projet");
+        jdbcTemplate.update("DELETE FROM users");
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void taskUpdateChangesTheTagsOfItsProjetAndUsers() {
+        String projetTag = getProjet(null).getHeaders().getETag();
+        String userTag = getUser(null).getHeaders().getETag();
+        assertThat(getProjet(projetTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(getUser(userTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        taskService.update(task.getId(), new TaskDto(null, "Tâche modifiée", "DONE", null), null);
+
+        ResponseEntity<ProjetDto> projetResponse = getProjet(projetTag);
+        assertThat(projetResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(projetResponse.getBody().getTasks()).extracting(TaskDto::getTitle).containsExactly("Tâche modifiée");
+        ResponseEntity<UserDto> userResponse = getUser(userTag);
+        assertThat(userResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(userResponse.getHeaders().getETag()).isNotEqualTo(userTag);
+        assertThat(getProjet(projetResponse.getHeaders().getETag()).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void readerBeforeCommitDoesNotKeepAStaleTag() throws Exception {
+        String projetTag = getProjet(null).getHeaders().getETag();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.update(task.getId(), new TaskDto(null, "Tâche modifiée", "DONE", null), null);
+            // Une autre requête relit le projet avant le commit : elle voit encore l'ancienne tâche et la met en cache
+            ResponseEntity<ProjetDto> concurrent = CompletableFuture.supplyAsync(() -> getProjet(null)).join();
+            assertThat(concurrent.getHeaders().getETag()).isEqualTo(projetTag);
+        });
+
+        ResponseEntity<ProjetDto> projetResponse = getProjet(projetTag);
+        assertThat(projetResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(projetResponse.getBody().getTasks()).extracting(TaskDto::getTitle).containsExactly("Tâche modifiée");
+    }
+
+    private ResponseEntity<ProjetDto> getProjet(String ifNoneMatch) {
+        return ConditionalRequests.get(projet.getId(), ifNoneMatch, projetService::etag, projetService::findById,
+                EntityTags::of);
+    }
+
+    private ResponseEntity<UserDto> getUser(String ifNoneMatch) {
+        return ConditionalRequests.get(user.getId(), ifNoneMatch, userService::etag, userService::findById,
+                EntityTags::of);
+    }
+}
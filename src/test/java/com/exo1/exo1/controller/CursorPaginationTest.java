@@ -0,0 +1,50 @@
+package com.exo1.exo1.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie les curseurs opaques : aller-retour de l'identifiant, curseur vide, curseur invalide (400)
+ * et absence de curseur suivant après une page incomplète.
+ */
+class CursorPaginationTest {
+
+    @Test
+    void nextCursorDecodesToLastId() {
+        ResponseEntity<List<Long>> page = CursorPagination.page(List.of(3L, 7L, 9_000_000_001L), 3, id -> id);
+
+        String cursor = page.getHeaders().getFirst(CursorPagination.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotBlank().doesNotContain("=");
+        assertThat(CursorPagination.decode(cursor)).isEqualTo(9_000_000_001L);
+        assertThat(page.getBody()).containsExactly(3L, 7L, 9_000_000_001L);
+    }
+
+    @Test
+    void emptyCursorStartsAtTheBeginning() {
+        assertThat(CursorPagination.decode("")).isZero();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : List.of("!!!", "YWJj", "MTIz=x")) {
+            assertThatThrownBy(() -> CursorPagination.decode(cursor))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void omitsNextCursorAfterShortOrEmptyPage() {
+        assertThat(CursorPagination.page(List.of(1L, 2L), 3, id -> id).getHeaders())
+                .doesNotContainKey(CursorPagination.NEXT_CURSOR_HEADER);
+        assertThat(CursorPagination.page(List.<Long>of(), 3, id -> id).getHeaders())
+                .doesNotContainKey(CursorPagination.NEXT_CURSOR_HEADER);
+    }
+}
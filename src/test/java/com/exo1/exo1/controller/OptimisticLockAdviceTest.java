@@ -0,0 +1,64 @@
+package com.exo1.exo1.controller;
+
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.monitoring.InFlightRequests;
+import com.exo1.exo1.monitoring.SqlStatsFilter;
+import com.exo1.exo1.service.ExportService;
+import com.exo1.exo1.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie qu'une écriture concurrente détectée par la version donne 412 avec If-Match et 409 sans.
+ */
+@WebMvcTest(controllers = TaskController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {SqlStatsFilter.class, InFlightRequests.class}))
+class OptimisticLockAdviceTest {
+
+    private static final String BODY = "{\"title\":\"Rédiger\",\"status\":\"DONE\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        when(taskService.update(anyLong(), any(TaskDto.class), nullable(String.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L));
+    }
+
+    @Test
+    void concurrentWriteWithIfMatchIsPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/tasks/1").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .header(HttpHeaders.IF_MATCH, "\"abc\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void concurrentWriteWithoutIfMatchIsConflict() throws Exception {
+        mockMvc.perform(put("/tasks/1").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,115 @@
+package com.exo1.exo1.monitoring;
+
+import com.p6spy.engine.logging.Category;
+import com.p6spy.engine.spy.appender.MessageFormattingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie l'écriture par lots, l'échantillonnage et le comptage des pertes du journal SQL asynchrone,
+ * ainsi que l'anneau sans verrou sous plusieurs producteurs.
+ */
+class AsyncSqlLoggerTest {
+
+    private static final MessageFormattingStrategy FORMAT =
+            (connectionId, now, elapsed, category, prepared, sql, url) -> elapsed + "|" + category + "|" + sql;
+
+    private final StringWriter out = new StringWriter();
+
+    @Test
+    void writesFormattedStatementsInBatches() {
+        AsyncSqlLogger logger = logger(16, 2, 1, 0);
+        long written = AsyncSqlLogger.written();
+        for (int i = 0; i < 3; i++) {
+            logger.logSQL(1, "now", i, Category.STATEMENT, "select ?", "select " + i, "jdbc:test");
+        }
+
+        assertThat(logger.flush()).isEqualTo(2);
+        assertThat(out.toString()).isEqualTo("0|statement|select 0" + System.lineSeparator()
+                + "1|statement|select 1" + System.lineSeparator());
+
+        logger.close();
+        assertThat(out.toString()).endsWith("2|statement|select 2" + System.lineSeparator());
+        assertThat(AsyncSqlLogger.written() - written).isEqualTo(3);
+    }
+
+    @Test
+    void dropsStatementsWhenTheBufferIsFull() {
+        AsyncSqlLogger logger = logger(4, 100, 1, 0);
+        long dropped = AsyncSqlLogger.dropped();
+        for (int i = 0; i < 10; i++) {
+            logger.logSQL(1, "now", 0, Category.STATEMENT, "", "select " + i, "");
+        }
+
+        assertThat(AsyncSqlLogger.dropped() - dropped).isEqualTo(6);
+        assertThat(logger.flush()).isEqualTo(4);
+        assertThat(out.toString()).contains("select 3").doesNotContain("select 4");
+    }
+
+    @Test
+    void samplesFastStatementsAndKeepsSlowOnes() {
+        AsyncSqlLogger slowOnly = logger(16, 100, 0, 50);
+        slowOnly.logSQL(1, "now", 49, Category.STATEMENT, "", "fast", "");
+        slowOnly.logSQL(1, "now", 50, Category.STATEMENT, "", "slow", "");
+        assertThat(slowOnly.flush()).isEqualTo(1);
+        assertThat(out.toString()).contains("slow").doesNotContain("fast");
+
+        AsyncSqlLogger oneInTen = logger(1 << 14, 1 << 14, 10, 0);
+        long sampledOut = AsyncSqlLogger.sampledOut();
+        for (int i = 0; i < 10_000; i++) {
+            oneInTen.logSQL(1, "now", 0, Category.STATEMENT, "", "select", "");
+        }
+        assertThat(oneInTen.flush()).isBetween(800, 1200);
+        assertThat(AsyncSqlLogger.sampledOut() - sampledOut).isBetween(8800L, 9200L);
+    }
+
+    @Test
+    void ringBufferKeepsEveryAcceptedElementInProducerOrder() {
+        SqlLogRingBuffer<long[]> buffer = new SqlLogRingBuffer<>(1000);
+        assertThat(buffer.capacity()).isEqualTo(1024);
+        int producers = 4;
+        int perProducer = 100_000;
+        AtomicInteger accepted = new AtomicInteger();
+        List<CompletableFuture<Void>> running = IntStream.range(0, producers)
+                .mapToObj(p -> CompletableFuture.runAsync(() -> {
+                    for (long i = 0; i < perProducer; i++) {
+                        if (buffer.offer(new long[]{p, i})) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }))
+                .toList();
+
+        long[] last = {-1, -1, -1, -1};
+        List<String> outOfOrder = new ArrayList<>();
+        int[] drained = {0};
+        while (!running.stream().allMatch(CompletableFuture::isDone) || buffer.size() > 0) {
+            drained[0] += buffer.drain(element -> {
+                int producer = (int) element[0];
+                if (element[1] <= last[producer]) {
+                    outOfOrder.add(producer + ":" + element[1]);
+                }
+                last[producer] = element[1];
+            }, 256);
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        drained[0] += buffer.drain(element -> { }, Integer.MAX_VALUE);
+
+        assertThat(outOfOrder).isEmpty();
+        assertThat(drained[0]).isEqualTo(accepted.get()).isPositive();
+    }
+
+    private AsyncSqlLogger logger(int bufferSize, int batchSize, int sampleRate, long slowThresholdMillis) {
+        return new AsyncSqlLogger(out, FORMAT, new AsyncSqlLogger.Settings(bufferSize, batchSize, Duration.ofMillis(10),
+                sampleRate, slowThresholdMillis), false);
+    }
+}
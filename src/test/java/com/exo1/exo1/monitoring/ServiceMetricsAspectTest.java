@@ -0,0 +1,80 @@
+package com.exo1.exo1.monitoring;
+
+import com.exo1.exo1.config.CacheConfig;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.repository.TaskRepository;
+import com.exo1.exo1.repository.UserRepository;
+import com.exo1.exo1.service.CacheInvalidator;
+import com.exo1.exo1.service.TaskService;
+import com.exo1.exo1.service.TaskTitleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie le temps des méthodes de service par issue de cache : un appel servi par le cache compte en {@code hit},
+ * un appel qui exécute la méthode en {@code miss}, une méthode non mise en cache en {@code none}.
+ */
+@SpringJUnitConfig({CacheConfig.class, TaskService.class, TaskMapperImpl.class, CacheInvalidator.class,
+        TaskTitleIndex.class, ServiceMetricsAspect.class, ServiceMetricsAspect.Execution.class,
+        ServiceMetricsAspectTest.Config.class})
+class ServiceMetricsAspectTest {
+
+    @Configuration
+    @EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+    @EnableAspectJAutoProxy
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private TaskRepository taskRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void splitsCacheableCallsIntoHitsAndMisses() {
+        Task task = new Task(7L, "a", "TODO", null, null, 0L);
+        when(taskRepository.findById(7L)).thenReturn(Optional.of(task));
+        when(taskRepository.findVersionById(8L)).thenThrow(new IllegalStateException("down"));
+
+        taskService.findById(7L);
+        taskService.findById(7L);
+        taskService.findById(7L);
+        assertThatThrownBy(() -> taskService.etag(8L)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(count("findById", "miss", "none")).isEqualTo(1);
+        assertThat(count("findById", "hit", "none")).isEqualTo(2);
+        assertThat(count("etag", "none", "IllegalStateException")).isEqualTo(1);
+    }
+
+    private long count(String method, String cache, String exception) {
+        return meterRegistry.get("service.method").tag("class", "TaskService").tag("method", method)
+                .tag("cache", cache).tag("exception", exception).timer().count();
+    }
+}
@@ -0,0 +1,61 @@
+package com.exo1.exo1.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le comptage des instructions par requête, la détection des N+1 par forme d'instruction
+ * et le cumul du temps de détention des connexions.
+ */
+class SqlRequestStatsTest {
+
+    @AfterEach
+    void tearDown() {
+        SqlRequestStats.end();
+    }
+
+    @Test
+    void flagsRepeatedStatementShapes() {
+        SqlRequestStats stats = SqlRequestStats.start();
+        stats.recordStatement("select p1_0.projet_id from projet p1_0 offset ? rows fetch first ? rows only", 1_000);
+        for (int id = 1; id <= 10; id++) {
+            stats.recordStatement("select t1_0.task_id, t1_0.title from task t1_0 where t1_0.projet_id=" + id, 2_000);
+            stats.recordFetch(500, true);
+        }
+        stats.recordStatement("select u1_0.name from users u1_0 where u1_0.email = 'a@b.fr'", 1_000);
+        stats.recordStatement("select u1_0.name from users u1_0 where u1_0.email = 'c''d@e.fr'", 1_000);
+
+        assertThat(SqlRequestStats.current()).isSameAs(stats);
+        assertThat(stats.getStatements()).isEqualTo(13);
+        assertThat(stats.getRows()).isEqualTo(10);
+        assertThat(stats.getJdbcNanos()).isEqualTo(28_000);
+        assertThat(stats.suspectedNPlusOne(5))
+                .containsOnlyKeys("select t1_0.task_id, t1_0.title from task t1_0 where t1_0.projet_id=?")
+                .containsValue(10);
+        assertThat(stats.suspectedNPlusOne(2)).hasSize(2);
+    }
+
+    @Test
+    void sumsConnectionHoldTimes() {
+        SqlRequestStats stats = SqlRequestStats.start();
+        Object first = new Object();
+        Object second = new Object();
+        stats.connectionAcquired(first, 1_000);
+        stats.connectionReleased(first, 4_000);
+        stats.connectionAcquired(second, 10_000);
+        stats.connectionReleased(second, 12_000);
+        stats.connectionReleased(new Object(), 20_000);
+
+        assertThat(stats.getConnections()).isEqualTo(2);
+        assertThat(stats.getConnectionNanos()).isEqualTo(5_000);
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        assertThat(SqlRequestStats.current()).isNull();
+        assertThat(SqlRequestStats.shape("select *\n  from task where title = 'x' and id = 42"))
+                .isEqualTo("select * from task where title = ? and id = ?");
+    }
+}
@@ -0,0 +1,89 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le contenu des exports NDJSON et CSV et que le contexte de persistance ne grossit pas avec l'export.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ExportService.class, TaskMapperImpl.class, ProjetMapperImpl.class, EntityCacheConfig.class})
+class ExportServiceTest {
+
+    private static final int TASKS = 2500;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Projet projet = new Projet();
+        projet.setName("Export, \"CSV\"");
+        entityManager.persist(projet);
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setStatus("TODO");
+            task.setProjet(projet);
+            entityManager.persist(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportTasksAsNdjsonInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.exportTasks(DataFormat.NDJSON, out)).isEqualTo(TASKS);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(TASKS);
+        assertThat(lines).extracting(line -> objectMapper.readTree(line).get("id").asLong()).isSorted();
+        assertThat(objectMapper.readTree(lines.get(0)).get("title").asText()).isEqualTo("Task 0");
+        // Seul le dernier bloc, incomplet, reste attaché au contexte de persistance
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isLessThan(ExportService.CHUNK_SIZE);
+    }
+
+    @Test
+    void exportProjetsAsCsvEscapesFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.exportProjets(DataFormat.CSV, out)).isEqualTo(1);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().toList())
+                .containsExactly("id,name,description", "%d,\"Export, \"\"CSV\"\"\",".formatted(firstProjetId()));
+    }
+
+    private long firstProjetId() {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT p.id FROM Projet p", Long.class).getSingleResult();
+    }
+}
@@ -0,0 +1,70 @@
+package com.exo1.exo1.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la lecture des fichiers d'import (NDJSON, CSV) et la validation des lignes.
+ */
+class ImportRowReaderTest {
+
+    @Test
+    void readsCsvWithQuotedFieldsAndLineNumbers() throws IOException {
+        List<ImportRowReader.Row> rows = read(DataFormat.CSV, """
+                id,title,status,projetId
+                1,"Écrire, relire",TODO,3
+
+                2,"Sur
+                deux lignes","",
+                3,incomplète
+                """);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(0).values()).containsEntry("title", "Écrire, relire").containsEntry("projetId", "3");
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(1).values()).containsEntry("title", "Sur\ndeux lignes").containsEntry("status", "")
+                .containsEntry("projetId", null);
+        assertThat(rows.get(2).line()).isEqualTo(6);
+        assertThat(rows.get(2).error()).isEqualTo("expected 4 columns, found 2");
+    }
+
+    @Test
+    void readsNdjsonAndRejectsMalformedLines() throws IOException {
+        List<ImportRowReader.Row> rows = read(DataFormat.NDJSON, """
+                {"id": 7, "name": "Projet", "description": null}
+                {"id": 8,
+                [1, 2]
+                """);
+
+        assertThat(rows).extracting(ImportRowReader.Row::error).containsExactly(null, "malformed JSON", "not a JSON object");
+        assertThat(rows.get(0).values()).isEqualTo(Map.of("id", "7", "name", "Projet"));
+    }
+
+    @Test
+    void validatesRequiredAndNumericFields() {
+        assertThat(ImportTable.TASK.validate(Map.of("title", "ok", "projetId", "12"))).isNull();
+        assertThat(ImportTable.TASK.validate(Map.of("status", "TODO"))).isEqualTo("missing title");
+        assertThat(ImportTable.TASK.validate(Map.of("title", "ok", "userId", "abc"))).isEqualTo("invalid userId: abc");
+        assertThat(ImportTable.USERS_PROJET.validate(Map.of("userId", "1"))).isEqualTo("missing projetId");
+        assertThat(ImportTable.PROJET.validate(Map.of("name", "x".repeat(256)))).isEqualTo("name longer than 255 characters");
+    }
+
+    private static List<ImportRowReader.Row> read(DataFormat format, String content) throws IOException {
+        ImportRowReader reader = new ImportRowReader(new BufferedReader(new StringReader(content)), format, new ObjectMapper());
+        List<ImportRowReader.Row> rows = new ArrayList<>();
+        for (ImportRowReader.Row row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
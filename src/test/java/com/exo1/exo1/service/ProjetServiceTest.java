@@ -0,0 +1,211 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie que la liste paginée des projets charge les tâches sans N+1
+ * et que la mise à jour d'un projet coûte un nombre fixe de requêtes.
+ * Vérifie le parcours complet par curseur, dans l'ordre des identifiants.
+ * Vérifie aussi les ETag calculés depuis les versions et la précondition If-Match,
+ * et l'échappement des caractères spéciaux de LIKE dans le motif de recherche.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProjetService.class, ProjetMapperImpl.class, TaskMapperImpl.class, CacheInvalidator.class, AssociationReconciler.class,
+        EntityCacheConfig.class})
+class ProjetServiceTest {
+
+    private static final int PROJETS = 120;
+    private static final int TASKS_PER_PROJET = 3;
+
+    @Autowired
+    private ProjetService projetService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PROJETS; i++) {
+            Projet projet = new Projet();
+            projet.setName("Projet " + i);
+            for (int j = 0; j < TASKS_PER_PROJET; j++) {
+                Task task = new Task();
+                task.setTitle("Task " + i + "-" + j);
+                task.setProjet(projet);
+                projet.getTasks().add(task);
+            }
+            entityManager.persist(projet);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllUsesConstantStatementCount() {
+        List<ProjetDto> page = projetService.findAll(PageRequest.of(0, 50));
+
+        assertThat(page).hasSize(50).allSatisfy(p -> assertThat(p.getTasks()).hasSize(TASKS_PER_PROJET));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        projetService.findAll(PageRequest.of(0, 10));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findAllKeepsPaginationOrder() {
+        List<ProjetDto> first = projetService.findAll(PageRequest.of(0, 50));
+        List<ProjetDto> last = projetService.findAll(PageRequest.of(2, 50));
+
+        assertThat(first).extracting(ProjetDto::getId).isSorted();
+        assertThat(last).hasSize(PROJETS - 100);
+        assertThat(last.get(0).getId()).isGreaterThan(first.get(first.size() - 1).getId());
+    }
+
+    @Test
+    void findAfterWalksAllPagesInIdOrder() {
+        List<Long> walked = new ArrayList<>();
+        List<ProjetDto> page;
+        long after = 0;
+        do {
+            statistics.clear();
+            page = projetService.findAfter(after, 50);
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+            assertThat(page).allSatisfy(p -> assertThat(p.getTasks()).hasSize(TASKS_PER_PROJET));
+            page.forEach(p -> walked.add(p.getId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (page.size() == 50);
+
+        assertThat(walked).hasSize(PROJETS).doesNotHaveDuplicates().isSorted();
+        assertThat(walked).containsExactlyElementsOf(projetService.findAll(PageRequest.of(0, PROJETS))
+                .stream().map(ProjetDto::getId).toList());
+        assertThat(projetService.findAfter(walked.get(PROJETS - 1), 50)).isEmpty();
+    }
+
+    @Test
+    void updateUsesConstantStatementCount() {
+        assertThat(statementsToUpdate(50)).isEqualTo(statementsToUpdate(5)).isEqualTo(5);
+    }
+
+    @Test
+    void updateMovesCreatesAndKeepsTasks() {
+        Projet projet = projet("Cible", 2);
+        Projet other = projet("Autre", 1);
+        Task kept = projet.getTasks().iterator().next();
+        Task moved = other.getTasks().iterator().next();
+
+        ProjetDto updated = projetService.update(projet.getId(), new ProjetDto(null, "Cible renommée", null, List.of(
+                new TaskDto(moved.getId(), moved.getTitle(), "DONE", null),
+                new TaskDto(null, "Nouvelle tâche", "TODO", null)), null), null);
+
+        assertThat(updated.getName()).isEqualTo("Cible renommée");
+        assertThat(updated.getTasks()).hasSize(4).extracting(TaskDto::getId).doesNotContainNull()
+                .contains(kept.getId(), moved.getId());
+        entityManager.clear();
+        assertThat(entityManager.find(Task.class, moved.getId()).getProjet().getId()).isEqualTo(projet.getId());
+        assertThat(entityManager.find(Projet.class, other.getId()).getTasks()).isEmpty();
+    }
+
+    @Test
+    void etagFollowsNestedTasksAndGuardsUpdates() {
+        Projet projet = projet("Versionné", 2);
+        ProjetDto loaded = projetService.findById(projet.getId());
+        String etag = projetService.etag(projet.getId());
+        assertThat(etag).isEqualTo(EntityTags.of(loaded));
+
+        Task task = entityManager.find(Task.class, loaded.getTasks().get(0).getId());
+        task.setStatus("DONE");
+        entityManager.flush();
+        entityManager.clear();
+        String changed = projetService.etag(projet.getId());
+        assertThat(changed).isNotEqualTo(etag);
+        assertThat(EntityTags.matchesWeakly("\"x\", W/" + changed, changed)).isTrue();
+        assertThat(EntityTags.matchesStrongly("W/" + changed, changed)).isFalse();
+
+        ProjetDto rename = new ProjetDto(null, "Renommé", null, null, null);
+        assertThatThrownBy(() -> projetService.update(projet.getId(), rename, etag))
+                .isInstanceOf(PreconditionFailedException.class);
+        ProjetDto updated = projetService.update(projet.getId(), rename, changed);
+        assertThat(projetService.etag(projet.getId())).isEqualTo(EntityTags.of(updated)).isNotEqualTo(changed);
+        assertThat(projetService.etag(-1L)).isNull();
+    }
+
+    @Test
+    void searchPatternMatchesSpecialCharactersLiterally() {
+        assertThat(ProjetService.containsPattern("100%")).isEqualTo("%100\\%%");
+        assertThat(ProjetService.containsPattern("a_b")).isEqualTo("%a\\_b%");
+        assertThat(ProjetService.containsPattern("C:\\tmp")).isEqualTo("%C:\\\\tmp%");
+
+        for (String name : List.of("Remise 100%", "Remise 1000", "a_b", "axb", "C:\\tmp", "C:tmp")) {
+            projet(name, 0);
+        }
+        assertThat(namesMatching("100%")).containsExactly("Remise 100%");
+        assertThat(namesMatching("A_B")).containsExactly("a_b");
+        assertThat(namesMatching("c:\\")).containsExactly("C:\\tmp");
+    }
+
+    /** Noms des projets retenus par le motif de recherche, avec l'ILIKE ... ESCAPE de la requête de recherche. */
+    @SuppressWarnings("unchecked")
+    private List<String> namesMatching(String query) {
+        return entityManager.getEntityManager()
+                .createNativeQuery("SELECT name FROM projet WHERE name ILIKE :pattern ESCAPE '\\' ORDER BY name")
+                .setParameter("pattern", ProjetService.containsPattern(query))
+                .getResultList();
+    }
+
+    /**
+     * Met à jour un projet de {@code tasks} tâches (nom du projet et titre d'une tâche modifiés)
+     * et renvoie le nombre de requêtes préparées.
+     */
+    private long statementsToUpdate(int tasks) {
+        Projet projet = projet("Projet à modifier", tasks);
+        List<TaskDto> taskDtos = new ArrayList<>();
+        projet.getTasks().forEach(task -> taskDtos.add(new TaskDto(task.getId(), task.getTitle(), task.getStatus(), null)));
+        taskDtos.get(0).setTitle("Titre modifié");
+
+        statistics.clear();
+        projetService.update(projet.getId(), new ProjetDto(null, "Projet modifié " + tasks, null, taskDtos, null), null);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Projet projet(String name, int tasks) {
+        Projet projet = new Projet();
+        projet.setName(name);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.setTitle(name + " " + i);
+            task.setProjet(projet);
+            projet.getTasks().add(task);
+        }
+        entityManager.persist(projet);
+        entityManager.flush();
+        entityManager.clear();
+        return projet;
+    }
+}
@@ -0,0 +1,171 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.dto.ProjetTaskCountDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.ProjetTaskCount;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.ProjetTaskCountMapperImpl;
+import com.exo1.exo1.repository.ProjetRepository;
+import com.exo1.exo1.repository.ProjetTaskCountRepository;
+import com.exo1.exo1.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Vérifie la maintenance incrémentale de projet_task_count (création, déplacement et suppression de tâches)
+ * et la réconciliation complète. La réconciliation emploie la syntaxe PostgreSQL (UPDATE ... FROM, ON CONFLICT) :
+ * la base H2 tourne ici en mode PostgreSQL.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projet-task-count;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProjetTaskCountService.class, ProjetTaskCountListener.class, ProjetTaskCountMapperImpl.class, CacheInvalidator.class,
+        EntityCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProjetTaskCountServiceTest {
+
+    @Autowired
+    private ProjetTaskCountService projetTaskCountService;
+
+    @Autowired
+    private ProjetTaskCountRepository projetTaskCountRepository;
+
+    @Autowired
+    private ProjetRepository projetRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM task");
+        jdbcTemplate.update("DELETE FROM projet");
+        jdbcTemplate.update("DELETE FROM projet_task_count");
+    }
+
+    @Test
+    void countsFollowTaskWrites() {
+        Projet first = projet("Premier");
+        Projet second = projet("Second");
+        assertThat(count(first)).isZero();
+
+        List<Task> tasks = transactionTemplate.execute(status -> {
+            Projet managed = projetRepository.findById(first.getId()).orElseThrow();
+            List<Task> created = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Task task = new Task();
+                task.setTitle("Task " + i);
+                task.setProjet(managed);
+                created.add(task);
+            }
+            return taskRepository.saveAll(created);
+        });
+        assertThat(count(first)).isEqualTo(3);
+
+        Task moved = tasks.get(0);
+        moved.setProjet(second);
+        moved = taskRepository.save(moved);
+        assertThat(count(first)).isEqualTo(2);
+        assertThat(count(second)).isEqualTo(1);
+        assertThat(projetTaskCountService.findAll(PageRequest.of(0, 10)).getContent())
+                .extracting(ProjetTaskCountDto::getProject_id, ProjetTaskCountDto::getTaskCount)
+                .containsExactly(tuple(first.getId(), 2L), tuple(second.getId(), 1L));
+
+        first.setName("Renommé");
+        projetRepository.save(first);
+        assertThat(projetTaskCountRepository.findById(first.getId())).get()
+                .extracting(ProjetTaskCount::getName).isEqualTo("Renommé");
+
+        // La suppression de la tâche entraîne celle de son projet (cascade) : le compteur disparaît aussi
+        taskRepository.deleteById(moved.getId());
+        assertThat(projetTaskCountRepository.existsById(second.getId())).isFalse();
+        assertThat(count(first)).isEqualTo(2);
+        assertThat(projetTaskCountService.reconcile()).isZero();
+    }
+
+    @Test
+    void reconcileFixesDrift() {
+        Projet projet = projet("Dérive");
+        jdbcTemplate.update("UPDATE projet_task_count SET task_count = 42 WHERE projet_id = ?", projet.getId());
+        jdbcTemplate.update("INSERT INTO projet_task_count (projet_id, name, task_count) VALUES (-1, 'orphelin', 3)");
+
+        assertThat(projetTaskCountService.reconcile()).isEqualTo(2);
+        assertThat(count(projet)).isZero();
+        assertThat(projetTaskCountRepository.existsById(-1L)).isFalse();
+        assertThat(projetTaskCountService.reconcile()).isZero();
+    }
+
+    @Test
+    void reconcileKeepsConcurrentDelta() throws Exception {
+        Projet projet = projet("Concurrent");
+        jdbcTemplate.update("UPDATE projet_task_count SET task_count = 42 WHERE projet_id = ?", projet.getId());
+        CountDownLatch deltaApplied = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        // Écrivain : ajoute une tâche et son delta, puis attend pour valider pendant la réconciliation
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO task (task_id, title, version, projet_id) VALUES (1000000, 'Concurrente', 0, ?)",
+                    projet.getId());
+            projetTaskCountService.applyDeltas(Map.of(projet.getId(), 1L));
+            deltaApplied.countDown();
+            await(commit);
+        }));
+        assertThat(deltaApplied.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Integer> reconcile = CompletableFuture.supplyAsync(projetTaskCountService::reconcile);
+        // La réconciliation lit l'agrégat sans la tâche non validée, puis attend le verrou du compteur
+        Thread.sleep(300);
+        commit.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        reconcile.get(10, TimeUnit.SECONDS);
+
+        assertThat(count(projet)).isEqualTo(1);
+        assertThat(projetTaskCountService.reconcile()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Projet projet(String name) {
+        Projet projet = new Projet();
+        projet.setName(name);
+        return projetRepository.save(projet);
+    }
+
+    private long count(Projet projet) {
+        return projetTaskCountRepository.findById(projet.getId()).orElseThrow().getTaskCount();
+    }
+}
@@ -0,0 +1,103 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare le débit d'insertion (lignes/s) entre le chemin unitaire {@link TaskService#save}
+ * et le chemin groupé {@link TaskService#saveAll}, et vérifie que ce dernier envoie bien des batchs JDBC.
+ * Vérifie aussi le parcours par curseur des tâches insérées.
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({TaskService.class, TaskMapperImpl.class, CacheInvalidator.class, TaskTitleIndex.class, EntityCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskServiceBatchTest {
+
+    private static final int ROWS = 2000;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAllSendsJdbcBatches() {
+        List<TaskDto> saved = taskService.saveAll(tasks("batch"));
+
+        assertThat(saved).hasSize(ROWS).allSatisfy(t -> assertThat(t.getId()).isNotNull());
+        // Un INSERT préparé par lot de 50 et un appel de séquence par bloc de 50 identifiants
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * ROWS / 50 + 2);
+    }
+
+    @Test
+    void compareSingleAndBatchThroughput() {
+        List<TaskDto> single = tasks("single");
+        long start = System.nanoTime();
+        single.forEach(taskService::save);
+        double singleRate = rowsPerSecond(start);
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        taskService.saveAll(tasks("batch"));
+        double batchRate = rowsPerSecond(start);
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        log.info("save unitaire : {} lignes/s ({} requêtes préparées)", Math.round(singleRate), singleStatements);
+        log.info("saveAll : {} lignes/s ({} requêtes préparées)", Math.round(batchRate), batchStatements);
+        assertThat(batchStatements).isLessThan(singleStatements / 10);
+    }
+
+    @Test
+    void findAfterWalksSavedTasksInIdOrder() {
+        List<Long> saved = taskService.saveAll(tasks("cursor")).stream().map(TaskDto::getId).sorted().toList();
+
+        List<Long> walked = new ArrayList<>();
+        List<TaskDto> page = taskService.findAfter(saved.get(0) - 1, 500);
+        while (!page.isEmpty()) {
+            page.forEach(t -> walked.add(t.getId()));
+            page = page.size() < 500 ? List.of() : taskService.findAfter(page.get(page.size() - 1).getId(), 500);
+        }
+
+        assertThat(walked).isSorted().doesNotHaveDuplicates().containsAll(saved);
+    }
+
+    private static List<TaskDto> tasks(String prefix) {
+        List<TaskDto> tasks = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            tasks.add(new TaskDto(null, prefix + "-" + i, "TODO", null));
+        }
+        return tasks;
+    }
+
+    private static double rowsPerSecond(long startNanos) {
+        return ROWS * 1_000_000_000d / (System.nanoTime() - startNanos);
+    }
+}
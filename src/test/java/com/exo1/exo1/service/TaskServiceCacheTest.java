@@ -0,0 +1,218 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.CacheConfig;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.repository.TaskRepository;
+import com.exo1.exo1.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mesure le taux de succès des caches de tâches sous une charge mixte 90 % lectures / 10 % écritures,
+ * avec l'invalidation ciblée et avec l'ancienne éviction {@code allEntries = true} (simulée).
+ * Vérifie qu'aucune page en cache ne reste périmée après une insertion ou une suppression.
+ */
+@SpringJUnitConfig({CacheConfig.class, TaskService.class, TaskMapperImpl.class, CacheInvalidator.class,
+        TaskTitleIndex.class, TaskServiceCacheTest.CachingConfig.class})
+class TaskServiceCacheTest {
+
+    private static final String[] REGIONS = {"tasks", "tasksByTitle", "taskById"};
+    private static final int TASKS = 1000;
+    private static final int TITLES = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final int OPERATIONS = 50_000;
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+    }
+
+    @MockBean
+    private TaskRepository taskRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final TreeMap<Long, Task> table = new TreeMap<>();
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= TASKS; id++) {
+            table.put(id, new Task(id, "title-" + id % TITLES, "TODO", null, null, null));
+        }
+        when(taskRepository.findById(anyLong())).thenAnswer(call -> Optional.ofNullable(table.get(call.<Long>getArgument(0))));
+        when(taskRepository.findByTitle(anyString())).thenAnswer(call -> table.values().stream()
+                .filter(task -> task.getTitle().equals(call.getArgument(0))).toList());
+        when(taskRepository.findAll(any(Pageable.class))).thenAnswer(call -> {
+            Pageable pageable = call.getArgument(0);
+            List<Task> all = new ArrayList<>(table.values());
+            int from = (int) Math.min(pageable.getOffset(), all.size());
+            return new PageImpl<>(all.subList(from, Math.min(from + pageable.getPageSize(), all.size())));
+        });
+        doAnswer(call -> table.remove(call.<Task>getArgument(0).getId())).when(taskRepository).delete(any(Task.class));
+        when(taskRepository.save(any(Task.class))).thenAnswer(call -> {
+            Task task = call.getArgument(0);
+            if (task.getId() == null) {
+                task.setId(nextId);
+            }
+            table.put(task.getId(), task);
+            return task;
+        });
+    }
+
+    @Test
+    void targetedInvalidationKeepsHitRatioUnderMixedWorkload() {
+        double legacy = run(true);
+        double targeted = run(false);
+
+        assertThat(targeted).isGreaterThan(legacy).isGreaterThan(0.7);
+    }
+
+    /**
+     * Une autre instance a pu insérer des identifiants plus grands (séquence allouée par blocs) :
+     * la nouvelle tâche s'insère au milieu de la liste et décale les pages suivantes.
+     */
+    @Test
+    void insertBelowTheLargestIdLeavesNoStalePage() {
+        table.remove(500L);
+        cacheAllPages();
+
+        nextId = 500;
+        taskService.save(new TaskDto(null, "title-0", "TODO", null));
+
+        assertCachedPagesMatchTable();
+        assertThat(cachedPage(PageRequest.of(0, PAGE_SIZE))).isNotNull();
+        assertThat(cachedPage(PageRequest.of(24, PAGE_SIZE))).isNull();
+    }
+
+    @Test
+    void insertAtTheEndEvictsTheFollowingEmptyPage() {
+        cacheAllPages();
+
+        nextId = TASKS + 1;
+        taskService.save(new TaskDto(null, "title-0", "TODO", null));
+
+        assertCachedPagesMatchTable();
+        assertThat(cachedPage(PageRequest.of(TASKS / PAGE_SIZE - 1, PAGE_SIZE))).isNotNull();
+        assertThat(cachedPage(PageRequest.of(TASKS / PAGE_SIZE, PAGE_SIZE))).isNull();
+    }
+
+    @Test
+    void deleteLeavesNoStalePage() {
+        cacheAllPages();
+
+        taskService.delete(500L, null);
+
+        assertCachedPagesMatchTable();
+        assertThat(cachedPage(PageRequest.of(0, PAGE_SIZE))).isNotNull();
+        assertThat(cachedPage(PageRequest.of(24, PAGE_SIZE))).isNull();
+    }
+
+    /**
+     * Met en cache toutes les pages, dont la page vide qui suit la dernière.
+     */
+    private void cacheAllPages() {
+        cacheManager.getCache("tasks").clear();
+        for (int page = 0; page <= table.size() / PAGE_SIZE; page++) {
+            taskService.findAll(PageRequest.of(page, PAGE_SIZE));
+        }
+    }
+
+    /**
+     * Chaque page restée en cache doit être identique à la page relue dans la table.
+     */
+    @SuppressWarnings("unchecked")
+    private void assertCachedPagesMatchTable() {
+        List<Long> ids = new ArrayList<>(table.keySet());
+        nativeCache("tasks").asMap().forEach((key, value) -> {
+            Pageable pageable = (Pageable) key;
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            assertThat(((List<TaskDto>) value).stream().map(TaskDto::getId).toList()).as("page %d", pageable.getPageNumber())
+                    .isEqualTo(ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size())));
+        });
+    }
+
+    private Object cachedPage(Pageable pageable) {
+        return nativeCache("tasks").getIfPresent(pageable);
+    }
+
+    /**
+     * Exécute la charge et retourne le taux de succès cumulé des trois régions.
+     *
+     * @param clearOnWrite vide les régions à chaque écriture, comme l'ancien {@code allEntries = true}.
+     */
+    private double run(boolean clearOnWrite) {
+        long hitsBefore = 0;
+        long requestsBefore = 0;
+        for (String region : REGIONS) {
+            cacheManager.getCache(region).clear();
+            hitsBefore += nativeCache(region).stats().hitCount();
+            requestsBefore += nativeCache(region).stats().requestCount();
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < OPERATIONS; i++) {
+            long id = 1 + random.nextInt(TASKS);
+            int operation = random.nextInt(10);
+            if (operation == 0) {
+                Task task = table.get(id);
+                taskService.update(id, new TaskDto(null, task.getTitle(), random.nextBoolean() ? "DONE" : "TODO", null), null);
+                if (clearOnWrite) {
+                    for (String region : REGIONS) {
+                        cacheManager.getCache(region).clear();
+                    }
+                }
+            } else if (operation <= 3) {
+                taskService.findById(id);
+            } else if (operation <= 6) {
+                taskService.findByTitle("title-" + id % TITLES);
+            } else {
+                taskService.findAll(PageRequest.of(random.nextInt(TASKS / PAGE_SIZE), PAGE_SIZE));
+            }
+        }
+
+        long hits = -hitsBefore;
+        long requests = -requestsBefore;
+        for (String region : REGIONS) {
+            hits += nativeCache(region).stats().hitCount();
+            requests += nativeCache(region).stats().requestCount();
+        }
+        return (double) hits / requests;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String region) {
+        return ((CaffeineCache) cacheManager.getCache(region)).getNativeCache();
+    }
+}
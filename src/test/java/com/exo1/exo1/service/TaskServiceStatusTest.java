@@ -0,0 +1,164 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.CacheConfig;
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.TaskStatusUpdateDto;
+import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.repository.TaskRepository;
+import com.exo1.exo1.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.webjars.NotFoundException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie les changements de statut hors entités : seules les entrées de cache contenant les tâches modifiées
+ * sont invalidées, et If-Match est comparé à la version en base puis vérifié par l'UPDATE lui-même.
+ * La requête SQL ({@code UPDATE ... RETURNING}, propre à PostgreSQL) est simulée.
+ */
+@SpringJUnitConfig({CacheConfig.class, TaskService.class, TaskMapperImpl.class, CacheInvalidator.class,
+        TaskTitleIndex.class, TaskServiceStatusTest.CachingConfig.class})
+class TaskServiceStatusTest {
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+    }
+
+    @MockBean
+    private TaskRepository taskRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final TaskDto first = new TaskDto(1L, "a", "TODO", 0L);
+    private final TaskDto second = new TaskDto(2L, "b", "TODO", 0L);
+    private final TaskDto other = new TaskDto(3L, "c", "TODO", 0L);
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        cache("taskById").put(1L, first);
+        cache("taskById").put(2L, second);
+        cache("taskById").put(3L, other);
+        cache("tasks").put(PageRequest.of(0, 2), List.of(first, second));
+        cache("tasks").put(PageRequest.of(1, 2), List.of(other));
+        cache("tasksByTitle").put("a", List.of(first));
+        cache("tasksByTitle").put("c", List.of(other));
+        cache("projetsById").put(7L, new ProjetDto());
+        cache("projetsById").put(8L, new ProjetDto());
+        cache("userById").put(5L, new UserDto());
+        cache("userById").put(6L, new UserDto());
+    }
+
+    @Test
+    void updateStatusRefreshesOnlyEntriesContainingTheTask() {
+        when(taskRepository.updateStatus(1L, "DONE", null)).thenReturn(List.of(change(1L, "a", "DONE", 1L, 7L)));
+        when(userRepository.findIdsByProjetIdIn(Set.of(7L))).thenReturn(List.of(5L));
+
+        TaskDto updated = taskService.updateStatus(1L, "DONE", null);
+
+        assertThat(updated).isEqualTo(new TaskDto(1L, "a", "DONE", 1L));
+        assertThat(cache("taskById").get(1L, TaskDto.class)).isEqualTo(updated);
+        assertThat(cache("taskById").get(3L)).isNotNull();
+        assertThat(cache("tasks").get(PageRequest.of(0, 2))).isNull();
+        assertThat(cache("tasks").get(PageRequest.of(1, 2))).isNotNull();
+        assertThat(cache("tasksByTitle").get("a")).isNull();
+        assertThat(cache("tasksByTitle").get("c")).isNotNull();
+        assertThat(cache("projetsById").get(7L)).isNull();
+        assertThat(cache("projetsById").get(8L)).isNotNull();
+        assertThat(cache("userById").get(5L)).isNull();
+        assertThat(cache("userById").get(6L)).isNotNull();
+        verify(taskRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void updateStatusGuardsIfMatchWithTheStoredVersion() {
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        String stale = EntityTags.builder().task(1L, 2L).build();
+        String current = EntityTags.builder().task(1L, 3L).build();
+
+        assertThatThrownBy(() -> taskService.updateStatus(1L, "DONE", stale)).isInstanceOf(PreconditionFailedException.class);
+        verify(taskRepository, never()).updateStatus(any(), any(), any());
+
+        // Modification concurrente entre la vérification et l'UPDATE : la version attendue ne correspond plus
+        when(taskRepository.updateStatus(1L, "DONE", 3L)).thenReturn(List.of());
+        assertThatThrownBy(() -> taskService.updateStatus(1L, "DONE", current)).isInstanceOf(PreconditionFailedException.class);
+
+        when(taskRepository.updateStatus(2L, "DONE", null)).thenReturn(List.of());
+        assertThatThrownBy(() -> taskService.updateStatus(2L, "DONE", null)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void updateStatusesEvictsEveryChangedTask() {
+        when(taskRepository.updateStatuses("DOING", 7L, "TODO", null)).thenReturn(List.of(
+                change(1L, "a", "DOING", 1L, 7L), change(2L, "b", "DOING", 1L, 7L)));
+
+        int updated = taskService.updateStatuses(new TaskStatusUpdateDto("DOING", 7L, "TODO", null));
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(cache("taskById").get(1L)).isNull();
+        assertThat(cache("taskById").get(2L)).isNull();
+        assertThat(cache("taskById").get(3L)).isNotNull();
+        assertThat(cache("tasks").get(PageRequest.of(0, 2))).isNull();
+        assertThat(cache("tasks").get(PageRequest.of(1, 2))).isNotNull();
+        assertThat(cache("tasksByTitle").get("a")).isNull();
+        assertThat(cache("projetsById").get(7L)).isNull();
+        assertThat(cache("projetsById").get(8L)).isNotNull();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private static TaskRepository.StatusChange change(Long id, String title, String status, Long version, Long projetId) {
+        return new TaskRepository.StatusChange() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getTitle() {
+                return title;
+            }
+
+            public String getStatus() {
+                return status;
+            }
+
+            public Long getVersion() {
+                return version;
+            }
+
+            public Long getProjetId() {
+                return projetId;
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.TaskSuggestionDto;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Vérifie le chargement de l'index des titres depuis la base, sa mise à jour par {@link TaskService}
+ * et la recherche par préfixe sans tenir compte de la casse. Les écritures annulées n'y laissent pas de trace.
+ */
+@DataJpaTest
+@Import({TaskService.class, TaskMapperImpl.class, CacheInvalidator.class, TaskTitleIndex.class, EntityCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskTitleIndexTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskTitleIndex taskTitleIndex;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        taskTitleIndex.load();
+    }
+
+    @Test
+    void loadsTitlesAndFollowsServiceWrites() {
+        List<Task> tasks = taskRepository.saveAll(List.of(
+                new Task(null, "Rédiger la spécification", "TODO", null, null, null),
+                new Task(null, "rédiger les tests", "TODO", null, null, null),
+                new Task(null, "Rédiger la spécification", "DONE", null, null, null),
+                new Task(null, "Relire", "TODO", null, null, null)));
+        taskTitleIndex.load();
+
+        assertThat(taskTitleIndex.suggest("RÉDIGER", 10))
+                .extracting(TaskSuggestionDto::getTitle, TaskSuggestionDto::getCount)
+                .containsExactly(tuple("Rédiger la spécification", 2), tuple("rédiger les tests", 1));
+        assertThat(taskTitleIndex.suggest("ré", 10)).hasSize(2);
+        assertThat(taskTitleIndex.suggest("re", 10)).extracting(TaskSuggestionDto::getTitle).containsExactly("Relire");
+        assertThat(taskTitleIndex.suggest("relire", 10)).extracting(TaskSuggestionDto::getTitle).containsExactly("Relire");
+
+        TaskDto saved = taskService.save(new TaskDto(null, "Rédiger la documentation", "TODO", null));
+        taskService.update(tasks.get(1).getId(), new TaskDto(null, "Tester", "TODO", null), null);
+        taskService.delete(tasks.get(0).getId(), null);
+
+        assertThat(taskService.suggest("rédiger", 10))
+                .extracting(TaskSuggestionDto::getTitle, TaskSuggestionDto::getTaskIds)
+                .containsExactly(
+                        tuple("Rédiger la documentation", List.of(saved.getId())),
+                        tuple("Rédiger la spécification", List.of(tasks.get(2).getId())));
+        assertThat(taskService.suggest("test", 10)).extracting(TaskSuggestionDto::getTitle).containsExactly("Tester");
+    }
+
+    @Test
+    void rolledBackWritesLeaveTheIndexUnchanged() {
+        Task task = taskRepository.save(new Task(null, "Relire", "TODO", null, null, null));
+        taskTitleIndex.load();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.save(new TaskDto(null, "Fantôme", "TODO", null));
+            taskService.update(task.getId(), new TaskDto(null, "Renommée", "TODO", null), null);
+            assertThat(taskService.suggest("fantôme", 10)).as("avant le commit").isEmpty();
+            status.setRollbackOnly();
+        });
+
+        assertThat(taskService.suggest("fantôme", 10)).isEmpty();
+        assertThat(taskService.suggest("renommée", 10)).isEmpty();
+        assertThat(taskService.suggest("relire", 10)).extracting(TaskSuggestionDto::getTaskIds)
+                .containsExactly(List.of(task.getId()));
+    }
+
+    @Test
+    void limitsSuggestionsAndListedIds() {
+        taskService.saveAll(LongStream.range(0, 30)
+                .mapToObj(i -> new TaskDto(null, "Tâche " + (char) ('a' + i % 15), "TODO", null))
+                .toList());
+
+        List<TaskSuggestionDto> suggestions = taskService.suggest("tâche", 5);
+
+        assertThat(suggestions).extracting(TaskSuggestionDto::getTitle)
+                .containsExactly("Tâche a", "Tâche b", "Tâche c", "Tâche d", "Tâche e");
+        assertThat(suggestions.get(0).getCount()).isEqualTo(2);
+        assertThat(taskService.suggest("zzz", 5)).isEmpty();
+    }
+}
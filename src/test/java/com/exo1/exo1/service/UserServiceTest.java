@@ -0,0 +1,197 @@
+package com.exo1.exo1.service;
+
+import com.exo1.exo1.config.EntityCacheConfig;
+import com.exo1.exo1.dto.ProjetDto;
+import com.exo1.exo1.dto.TaskDto;
+import com.exo1.exo1.dto.UserDto;
+import com.exo1.exo1.entity.Projet;
+import com.exo1.exo1.entity.Task;
+import com.exo1.exo1.entity.User;
+import com.exo1.exo1.mapper.ProjetMapperImpl;
+import com.exo1.exo1.mapper.TaskMapperImpl;
+import com.exo1.exo1.mapper.UserMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que la lecture et la mise à jour d'un utilisateur coûtent un nombre fixe de requêtes quelle que soit
+ * la taille de son graphe, et que la mise à jour ne réécrit que les liens utilisateur-projet modifiés.
+ * Vérifie aussi le parcours par curseur, dans l'ordre des identifiants.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UserService.class, UserMapperImpl.class, ProjetMapperImpl.class, TaskMapperImpl.class,
+        CacheInvalidator.class, AssociationReconciler.class, EntityCacheConfig.class})
+class UserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void updateUsesConstantStatementCount() {
+        assertThat(statementsToUpdate(100, 50)).isEqualTo(statementsToUpdate(2, 2)).isEqualTo(5);
+    }
+
+    /**
+     * Hors de toute transaction, comme depuis un contrôleur sans open-in-view : le graphe entier est chargé
+     * dans la transaction du service, et rien ne reste à charger après.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void readsTheWholeGraphInConstantStatementCount() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            User user = transaction.execute(status -> user("Alice", projet("A", 3), projet("B", 2)));
+            transaction.executeWithoutResult(status -> user("Bob", projet("C", 1)));
+
+            statistics.clear();
+            List<UserDto> page = userService.findAll(PageRequest.of(0, 10));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            assertThat(page).extracting(UserDto::getName).containsExactly("Alice", "Bob");
+            assertThat(page.get(0).getProjets()).flatExtracting(ProjetDto::getTasks).hasSize(5);
+
+            statistics.clear();
+            UserDto alice = userService.findById(user.getId());
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(alice.getProjets()).extracting(ProjetDto::getName).containsExactlyInAnyOrder("A", "B");
+            assertThat(statistics.getFlushCount()).isZero();
+        } finally {
+            transaction.executeWithoutResult(status -> jdbcTemplate.execute(
+                    "DELETE FROM users_projet; DELETE FROM task; DELETE FROM users; DELETE FROM projet"));
+        }
+    }
+
+    @Test
+    void findAfterWalksAllPagesInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            user("Utilisateur " + i, projet("Projet " + i, 2));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UserDto> walked = new ArrayList<>();
+        List<UserDto> page = userService.findAfter(0, 2);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            page = page.size() < 2 ? List.of() : userService.findAfter(page.get(page.size() - 1).getId(), 2);
+        }
+
+        assertThat(walked).extracting(UserDto::getId).hasSize(5).doesNotHaveDuplicates().isSorted();
+        assertThat(walked).extracting(UserDto::getName).containsExactly(
+                "Utilisateur 0", "Utilisateur 1", "Utilisateur 2", "Utilisateur 3", "Utilisateur 4");
+        assertThat(walked).allSatisfy(u -> assertThat(u.getProjets()).singleElement()
+                .satisfies(p -> assertThat(p.getTasks()).hasSize(2)));
+    }
+
+    @Test
+    void updateReconcilesOnlyChangedLinks() {
+        Projet shared = projet("Partagé", 1);
+        Projet dropped = projet("Retiré", 1);
+        Projet added = projet("Ajouté", 0);
+        User user = user("Alice", shared, dropped);
+        User other = user("Bob", shared);
+        entityManager.flush();
+        entityManager.clear();
+
+        UserDto updated = userService.update(user.getId(), new UserDto(null, "Alice", "alice@exo1.fr", List.of(
+                dto(shared), dto(added),
+                new ProjetDto(null, "Nouveau", null, List.of(new TaskDto(null, "Première tâche", "TODO", null)), null)), null), null);
+
+        assertThat(updated.getProjets()).extracting(ProjetDto::getName)
+                .containsExactlyInAnyOrder("Partagé", "Ajouté", "Nouveau");
+        assertThat(linkedProjets(user)).containsExactlyInAnyOrderElementsOf(
+                updated.getProjets().stream().map(ProjetDto::getId).toList());
+        assertThat(linkedProjets(other)).containsExactly(shared.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM projet WHERE projet_id = ?", Long.class,
+                dropped.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM task WHERE projet_id = ?", Long.class,
+                updated.getProjets().stream().filter(p -> p.getName().equals("Nouveau")).findFirst().orElseThrow().getId()))
+                .isEqualTo(1);
+    }
+
+    /**
+     * Met à jour le nom d'un utilisateur de {@code projets} projets de {@code tasks} tâches, graphe inchangé,
+     * et renvoie le nombre de requêtes préparées.
+     */
+    private long statementsToUpdate(int projets, int tasks) {
+        List<Projet> list = new ArrayList<>();
+        for (int i = 0; i < projets; i++) {
+            list.add(projet("Projet " + i, tasks));
+        }
+        User user = user("Utilisateur " + projets, list.toArray(Projet[]::new));
+        entityManager.flush();
+        entityManager.clear();
+        UserDto userDto = new UserDto(null, "Renommé " + projets, "renomme@exo1.fr", list.stream().map(this::dto).toList(), null);
+
+        statistics.clear();
+        userService.update(user.getId(), userDto, null);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Long> linkedProjets(User user) {
+        return jdbcTemplate.queryForList("SELECT projet_id FROM users_projet WHERE users_id = ?", Long.class, user.getId());
+    }
+
+    private Projet projet(String name, int tasks) {
+        Projet projet = new Projet();
+        projet.setName(name);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.setTitle(name + " " + i);
+            task.setStatus("TODO");
+            task.setProjet(projet);
+            projet.getTasks().add(task);
+        }
+        entityManager.persist(projet);
+        return projet;
+    }
+
+    private User user(String name, Projet... projets) {
+        User user = new User();
+        user.setName(name);
+        user.getProjets().addAll(List.of(projets));
+        entityManager.persist(user);
+        return user;
+    }
+
+    private ProjetDto dto(Projet projet) {
+        return new ProjetDto(projet.getId(), projet.getName(), projet.getDescription(), projet.getTasks().stream()
+                .map(task -> new TaskDto(task.getId(), task.getTitle(), task.getStatus(), null)).toList(), null);
+    }
+}